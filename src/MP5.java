@@ -1,21 +1,31 @@
 
 
 import java.io.FileNotFoundException; 
+import java.io.IOException;
 import mp5.*;
 
 public class MP5 {
 
 	/**This class takes arguments from the command line to build a graph from the given data
-	 * and conduct a breadth-first search on it. 
+	 * and conduct a breadth-first search on it. The graph is saved to "<filename>.snapshot" the first
+	 * time, and later runs load the snapshot instead of rebuilding the graph.
 	 * @param args - Of the form: <filename> <vertex1> <vertex2> <numThreads>
 	 * 		-filename - the file you want to create the graph from
 	 * 		-vertex1  - the start vertex of the search
 	 * 		-vertex2  - The end vertex of the search
 	 * 		-numThreads - The number of threads to use in the search
+	 * Or, to keep answering queries from clients until stopped, of the form: --serve <filename> <port> <numThreads>
+	 * 		-filename - the file you want to create the graph from
+	 * 		-port - the loopback port to listen on for the GraphServer line protocol, 0 for any free port
+	 * 		-numThreads - The number of searches to run at the same time
 	 */
 	public static void main(String[] args) {
-		SimpleGraph graph = null;
-		if( args.length != 4)
+		CompactGraph graph = null;
+		if( args.length == 4 && args[0].equals("--serve") )
+		{
+			serve( args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]) );
+		}
+		else if( args.length != 4)
 		{
 			throw new IllegalArgumentException( "Error: Must supply 4 arguments\n");
 		}
@@ -28,7 +38,7 @@ public class MP5 {
 			
 			try
 			{
-				 graph = MarvelGenerator.generateGraph(filename);
+				 graph = MarvelGenerator.generateCompactGraph(filename);
 				 graph.breadthFirstSearch(startVertex, endVertex, threads);
 			} 
 			catch (FileNotFoundException | NullPointerException e) 
@@ -40,6 +50,37 @@ public class MP5 {
 			{
 				//No need to do anything, NoPathException prints out an error message.
 			}
+			finally
+			{
+				CompactGraph.shutdownSearchPools(); //No more searches
+			}
+		}
+	}
+
+	/**
+	 * Builds the graph once and answers queries with a GraphServer until the program is stopped
+	 */
+	private static void serve( String filename, int port, int threads ) {
+		try
+		{
+			GraphServer server = new GraphServer( MarvelGenerator.generateCompactGraph(filename), port, threads );
+			server.start();
+			System.out.println( "Serving " + filename + " on 127.0.0.1:" + server.getPort() + " with "
+					+ ( server.usesVirtualThreads() ? "virtual" : "platform" ) + " connection threads" );
+			Thread.currentThread().join(); //The server's threads are daemons, so wait here until stopped
+		}
+		catch (FileNotFoundException | NullPointerException e) 
+		{
+			System.out.println( "Error Reading file: Please make sure you have" +
+					" supplied the correct file path\n");
+		}
+		catch (IOException e)
+		{
+			System.out.println( "Error: Could not listen on port " + port + ": " + e.getMessage() );
+		}
+		catch (InterruptedException e)
+		{
+			//Stopped
 		}
 	}
 
@@ -0,0 +1,66 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import mp5.NoPathException;
+import mp5.PathListener;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks finding the paths between 100 random Marvel start characters and 128 random end characters,
+ * with one batchSearch against a bidirectionalSearch for every pair.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class BatchSearchBenchmark {
+	
+	private List<String> startVertices = new ArrayList<String>();
+	private List<String> endVertices = new ArrayList<String>();
+	
+	@Setup
+	public void setUp( MarvelState marvel ) {
+		Random random = new Random(15);
+		for( int start = 0; start < 100; start++ )
+			startVertices.add( marvel.compactGraph.getVertex( random.nextInt(marvel.compactGraph.vertexCount()) ) );
+		for( int end = 0; end < 128; end++ )
+			endVertices.add( marvel.compactGraph.getVertex( random.nextInt(marvel.compactGraph.vertexCount()) ) );
+	}
+	
+	@Benchmark
+	public void batchSearch( MarvelState marvel, final Blackhole blackhole ) {
+		marvel.compactGraph.batchSearch(startVertices, endVertices, new PathListener() {
+			public void pathFound( String startVertex, String endVertex, int distance, List<String> path ) {
+				blackhole.consume(path);
+			}
+			public void noPath( String startVertex, String endVertex ) {
+				blackhole.consume(endVertex);
+			}
+		});
+	}
+	
+	@Benchmark
+	public void bidirectionalSearch( MarvelState marvel, Blackhole blackhole ) {
+		for( String startVertex : startVertices )
+			for( String endVertex : endVertices )
+			{
+				try {
+					blackhole.consume( marvel.compactGraph.bidirectionalSearch(startVertex, endVertex) );
+				}
+				catch( NoPathException e ) {
+					blackhole.consume(e);
+				}
+			}
+	}
+}
@@ -0,0 +1,33 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class BenchmarkMain {
+
+	/**Runs the JMH benchmarks in this package with the GC profiler (allocation rate per operation) and
+	 * saves the results as JSON, so that they can be compared against an earlier run.
+	 * Run from the project directory so that "labeled_edges.tsv" is found.
+	 * @param args - Of the form: [regex] [resultFile]
+	 * 		-regex - only run benchmarks matching this (default: all benchmarks in this package)
+	 * 		-resultFile - where to save the JSON results (default: benchmark-results.json)
+	 */
+	public static void main(String[] args) throws Exception {
+		String include = args.length > 0 ? args[0] : "benchmarks\\..*";
+		String resultFile = args.length > 1 ? args[1] : "benchmark-results.json";
+		
+		Options options = new OptionsBuilder()
+				.include(include)
+				.addProfiler(GCProfiler.class)
+				.warmupIterations(3)
+				.measurementIterations(5)
+				.forks(1)
+				.resultFormat(ResultFormatType.JSON)
+				.result(resultFile)
+				.build();
+		new Runner(options).run();
+	}
+}
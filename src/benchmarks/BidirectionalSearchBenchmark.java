@@ -0,0 +1,29 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import mp5.NoPathException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+/**
+ * Benchmarks the (single-threaded) bidirectionalSearch on the Marvel graph for every QueryPair.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BidirectionalSearchBenchmark {
+	
+	@Benchmark
+	public List<String> bidirectionalSearch( MarvelState marvel, QueryPair pair ) {
+		try {
+			return marvel.compactGraph.bidirectionalSearch(pair.startVertex, pair.endVertex);
+		}
+		catch( NoPathException e ) {
+			return null;
+		}
+	}
+}
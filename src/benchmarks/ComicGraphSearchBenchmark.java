@@ -0,0 +1,30 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import mp5.NoPathException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+/**
+ * Benchmarks the breadthFirstSearch of the ComicGraph (which hops through comics instead of edges) on the
+ * Marvel data for every QueryPair.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ComicGraphSearchBenchmark {
+	
+	@Benchmark
+	public List<String> breadthFirstSearch( MarvelState marvel, QueryPair pair ) {
+		try {
+			return marvel.comicGraph.breadthFirstSearch(pair.startVertex, pair.endVertex);
+		}
+		catch( NoPathException e ) {
+			return null;
+		}
+	}
+}
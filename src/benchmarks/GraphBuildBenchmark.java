@@ -0,0 +1,69 @@
+package benchmarks;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import mp5.ComicGraph;
+import mp5.CompactGraph;
+import mp5.GraphSnapshot;
+import mp5.MarvelGenerator;
+import mp5.SimpleGraph;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks building the Marvel graph from "labeled_edges.tsv", and loading it from a snapshot. Building
+ * takes seconds, so this uses single-shot iterations instead of the default timed ones. Each build prints
+ * only a progress line every 10000 lines read, which costs nothing next to the build and is left in the output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GraphBuildBenchmark {
+	
+	private File snapshot;
+	
+	@Setup
+	public void setUp() throws Exception {
+		snapshot = File.createTempFile("marvel", ".snapshot");
+		GraphSnapshot.write( MarvelGenerator.generateGraph(MarvelState.DATA).compile(), snapshot.getPath(), MarvelState.DATA );
+	}
+	
+	@TearDown
+	public void tearDown() {
+		snapshot.delete();
+	}
+	
+	@Benchmark
+	public SimpleGraph generateGraph() throws Exception {
+		return MarvelGenerator.generateGraph(MarvelState.DATA);
+	}
+	
+	@Benchmark
+	public CompactGraph generateAndCompile() throws Exception {
+		return MarvelGenerator.generateGraph(MarvelState.DATA).compile();
+	}
+	
+	@Benchmark
+	public ComicGraph generateComicGraph() throws Exception {
+		return MarvelGenerator.generateComicGraph(MarvelState.DATA);
+	}
+	
+	@Benchmark
+	public CompactGraph loadSnapshot() throws Exception {
+		return GraphSnapshot.load( snapshot.getPath() );
+	}
+}
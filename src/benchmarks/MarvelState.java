@@ -0,0 +1,50 @@
+package benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import mp5.ComicGraph;
+import mp5.CompactGraph;
+import mp5.MarvelGenerator;
+import mp5.SimpleGraph;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Shared benchmark state: the Marvel graph built once per trial from "labeled_edges.tsv", as a SimpleGraph,
+ * its CompactGraph and a ComicGraph.
+ * The graph building and searches print to System.out, so it is silenced while benchmarks run.
+ */
+@State(Scope.Benchmark)
+public class MarvelState {
+	
+	/**The Marvel data set, relative to the directory the benchmarks are run from */
+	public static final String DATA = "labeled_edges.tsv";
+	
+	public SimpleGraph graph;
+	public CompactGraph compactGraph;
+	public ComicGraph comicGraph;
+	
+	private PrintStream console;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		console = System.out;
+		System.setOut( new PrintStream( new OutputStream() {
+			public void write( int b ) {}
+			public void write( byte[] b, int off, int len ) {}
+		}));
+		graph = MarvelGenerator.generateGraph(DATA);
+		compactGraph = graph.compile();
+		comicGraph = MarvelGenerator.generateComicGraph(DATA);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		System.setOut(console);
+	}
+}
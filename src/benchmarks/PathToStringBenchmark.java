@@ -0,0 +1,38 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks rendering the "far" QueryPair's path (4 hops) on each graph backend.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PathToStringBenchmark {
+	
+	public List<String> path;
+	
+	@Setup
+	public void setUp( MarvelState marvel ) {
+		path = marvel.compactGraph.bidirectionalSearch("CANNONBALL/SAM GUTHR", "MYLZOB'RYN, CHIEF");
+	}
+	
+	@Benchmark
+	public String simpleGraph( MarvelState marvel ) {
+		return marvel.graph.pathToString(path);
+	}
+	
+	@Benchmark
+	public String compactGraph( MarvelState marvel ) {
+		return marvel.compactGraph.pathToString(path);
+	}
+}
@@ -0,0 +1,38 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The pair of Marvel characters a search benchmark looks for a path between, chosen by "query":
+ * 	-near - characters that share a comic
+ * 	-far - characters 4 hops apart (the longest path found in 20000 random pairs)
+ * 	-unreachable - characters in different components, so the whole start component is searched
+ */
+@State(Scope.Benchmark)
+public class QueryPair {
+	
+	@Param({"near", "far", "unreachable"})
+	public String query;
+	
+	public String startVertex;
+	public String endVertex;
+	
+	@Setup
+	public void setUp() {
+		if( query.equals("near") ) {
+			startVertex = "FROST, CARMILLA";
+			endVertex = "24-HOUR MAN/EMMANUEL";
+		}
+		else if( query.equals("far") ) {
+			startVertex = "CANNONBALL/SAM GUTHR";
+			endVertex = "MYLZOB'RYN, CHIEF";
+		}
+		else {
+			startVertex = "AMAZO-MAXI-WOMAN/";
+			endVertex = "ARRANGER/";
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import mp5.NoPathException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks breadthFirstSearch on the Marvel graph for every QueryPair and thread count
+ * ("0" means one thread per available processor).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SearchBenchmark {
+	
+	@Param({"1", "2", "4", "8", "0"})
+	public int threads;
+	
+	@Setup
+	public void setUp() {
+		if( threads == 0 )
+			threads = Runtime.getRuntime().availableProcessors();
+	}
+	
+	@Benchmark
+	public List<String> breadthFirstSearch( MarvelState marvel, QueryPair pair ) {
+		try {
+			return marvel.compactGraph.breadthFirstSearch(pair.startVertex, pair.endVertex, threads);
+		}
+		catch( NoPathException e ) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,170 @@
+package benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import mp5.CompactGraph;
+import mp5.GraphServer;
+import mp5.MarvelGenerator;
+
+public class ServerLoadGenerator {
+
+	/**Measures the latency of a GraphServer on the Marvel graph while it holds many idle connections.
+	 * First "idle" connections are opened and left without sending anything, then "clients" threads each
+	 * send "requests" queries between random characters one after another, each waiting for its answer.
+	 * The latency of every query is recorded, and the percentiles are printed at the end.
+	 * Run from the project directory so that "labeled_edges.tsv" is found. This is a plain program rather
+	 * than a JMH benchmark, since the percentiles across many clients are what matters.
+	 * @param args - Of the form: [idle] [clients] [requests] [searchThreads] [port]
+	 * 		-idle - connections held open without sending queries (default: 2000). A server started here holds
+	 * 			only as many as fit under its connection limit (see GraphServer.PLATFORM_CONNECTION_LIMIT).
+	 * 		-clients - connections sending queries at the same time (default: 32)
+	 * 		-requests - queries sent by each client (default: 500)
+	 * 		-searchThreads - searches run at the same time by the server started here (default: processors)
+	 * 		-port - port of a server that is already running (eg MP5 --serve), instead of starting one here
+	 */
+	public static void main(String[] args) throws Exception {
+		int idle = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		int clients = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+		final int requests = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+		int searchThreads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+		//Graph building prints to System.out, so it is silenced and results go to the console
+		PrintStream console = System.out;
+		System.setOut( new PrintStream( new OutputStream() {
+			public void write( int b ) {}
+			public void write( byte[] b, int off, int len ) {}
+		}));
+		CompactGraph graph = MarvelGenerator.generateCompactGraph(MarvelState.DATA);
+
+		GraphServer server = null;
+		final int port;
+		if( args.length > 4 )
+			port = Integer.parseInt(args[4]);
+		else
+		{
+			server = new GraphServer(graph, 0, searchThreads);
+			server.start();
+			port = server.getPort();
+			console.println( "Started a server with " + searchThreads + " search threads and "
+					+ ( server.usesVirtualThreads() ? "virtual" : "platform" ) + " connection threads" );
+			if( idle + clients > server.connectionLimit() ) //The connections past it would be refused
+			{
+				idle = server.connectionLimit() - clients;
+				console.println( "Holding " + idle + " idle connections to stay under the limit of " + server.connectionLimit() );
+			}
+		}
+
+		List<Socket> idleSockets = new ArrayList<Socket>();
+		try
+		{
+			for( int connection = 0; connection < idle; connection++ )
+				idleSockets.add( new Socket( InetAddress.getLoopbackAddress(), port ) );
+			console.println( "Opened " + idle + " idle connections" );
+
+			//Every client asks its own random pairs of characters
+			final String[][][] pairs = new String[clients][requests][2];
+			Random random = new Random(42);
+			for( String[][] clientPairs : pairs )
+				for( String[] pair : clientPairs )
+				{
+					pair[0] = graph.getVertex( random.nextInt(graph.vertexCount()) );
+					pair[1] = graph.getVertex( random.nextInt(graph.vertexCount()) );
+				}
+
+			final long[][] latencies = new long[clients][requests];
+			final CountDownLatch go = new CountDownLatch(1);
+			List<Thread> threads = new ArrayList<Thread>();
+			for( int client = 0; client < clients; client++ )
+			{
+				final int id = client;
+				final Socket socket = new Socket( InetAddress.getLoopbackAddress(), port );
+				Thread thread = new Thread( new Runnable()
+				{
+					public void run()
+					{
+						try
+						{
+							runClient(socket, pairs[id], latencies[id], go);
+						}
+						catch( Exception e )
+						{
+							System.err.println( "Client " + id + " failed: " + e );
+						}
+					}
+				});
+				thread.start();
+				threads.add(thread);
+			}
+
+			long start = System.nanoTime();
+			go.countDown();
+			for( Thread thread : threads )
+				thread.join();
+			long elapsed = System.nanoTime() - start;
+
+			long[] all = new long[clients * requests];
+			for( int client = 0; client < clients; client++ )
+				System.arraycopy(latencies[client], 0, all, client * requests, requests);
+			Arrays.sort(all);
+			console.println( all.length + " queries from " + clients + " clients in " + elapsed / 1000000 + " ms ("
+					+ (long) ( all.length / ( elapsed / 1e9 ) ) + " queries/s)" );
+			console.println( "latency p50 " + micros(all, 0.50) + " us, p90 " + micros(all, 0.90) + " us, p99 "
+					+ micros(all, 0.99) + " us, p99.9 " + micros(all, 0.999) + " us, max " + all[all.length - 1] / 1000 + " us" );
+		}
+		finally
+		{
+			for( Socket socket : idleSockets )
+				socket.close();
+			if( server != null )
+				server.close();
+			System.setOut(console);
+		}
+	}
+
+	/**
+	 * Waits for "go", then asks for the path of every pair in turn on "socket", recording each latency
+	 */
+	private static void runClient( Socket socket, String[][] pairs, long[] latencies, CountDownLatch go )
+			throws IOException, InterruptedException {
+		try
+		{
+			socket.setTcpNoDelay(true);
+			Writer out = new OutputStreamWriter( socket.getOutputStream(), "UTF-8" );
+			BufferedReader in = new BufferedReader( new InputStreamReader( socket.getInputStream(), "UTF-8" ) );
+			go.await();
+			for( int request = 0; request < pairs.length; request++ )
+			{
+				long start = System.nanoTime();
+				out.write( pairs[request][0] + "\t" + pairs[request][1] + "\n" );
+				out.flush();
+				if( in.readLine() == null )
+					throw new IOException( "Server closed the connection" );
+				latencies[request] = System.nanoTime() - start;
+			}
+		}
+		finally
+		{
+			socket.close();
+		}
+	}
+
+	/**
+	 * Returns the latency at "percentile" of the sorted latencies, in microseconds
+	 */
+	private static long micros( long[] sorted, double percentile ) {
+		return sorted[ Math.min( sorted.length - 1, (int) ( percentile * sorted.length ) ) ] / 1000;
+	}
+}
@@ -0,0 +1,47 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import mp5.MarvelGenerator;
+import mp5.SimpleGraph;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks building the Marvel graph from "labeled_edges.tsv" in shards on several threads, for every
+ * thread count ("0" means one thread per available processor). Compare it with
+ * GraphBuildBenchmark.generateGraph, which reads and builds on 2 threads through a queue. Like that
+ * benchmark it uses single-shot iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ShardedBuildBenchmark {
+
+	@Param({"1", "2", "4", "8", "0"})
+	public int threads;
+
+	@Setup
+	public void setUp() {
+		if( threads == 0 )
+			threads = Runtime.getRuntime().availableProcessors();
+	}
+
+	@Benchmark
+	public SimpleGraph generateGraph() throws Exception {
+		return MarvelGenerator.generateGraph(MarvelState.DATA, threads);
+	}
+}
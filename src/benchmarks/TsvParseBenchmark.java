@@ -0,0 +1,47 @@
+package benchmarks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.concurrent.TimeUnit;
+
+import mp5.TsvFile;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks only reading the rows of "labeled_edges.tsv", without building a graph. readLines does what
+ * MarvelGenerator.generateGraph(data) does for every line, mappedRows reads the file with TsvFile.map.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TsvParseBenchmark {
+	
+	@Benchmark
+	public void readLines( Blackhole blackhole ) throws Exception {
+		BufferedReader reader = new BufferedReader( new FileReader( new File(MarvelState.DATA)) );
+		String next;
+		while( (next = reader.readLine() ) != null )
+		{
+			String[] nextData = next.split("\\t");
+			blackhole.consume( nextData[0].replaceAll("^\"|\"$", "") );
+			blackhole.consume( nextData[1].replaceAll("^\"|\"$", "") );
+		}
+		reader.close();
+	}
+	
+	@Benchmark
+	public TsvFile mappedRows() throws Exception {
+		return TsvFile.map(MarvelState.DATA);
+	}
+}
@@ -0,0 +1,97 @@
+package mp5;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public final class BfsTree {
+
+	/**REP INVARIANT:
+	- parent.length == distance.length == graph.vertexCount()
+	- parent[root] == root and distance[root] == 0
+	- for every other vertex v, parent[v] == -1 and distance[v] == -1 if v is not connected to root,
+		otherwise parent[v] is a neighbour of v with distance[ parent[v] ] == distance[v] - 1
+	*/
+
+	/**Abstraction Function
+	 - Maps the root to the shortest and alphabetically lowest path from it to every vertex of graph it is
+	 	connected to. The path to v is root, ..., parent[ parent[v] ], parent[v], v.
+	 - Comparing paths from their first vertex, a lower path always goes through a lower path to
+	 	its last predecessor, so following parents gives the same path as CompactGraph.breadthFirstSearch.
+	 */
+
+	//graph the tree was searched on
+	private final CompactGraph graph;
+	//id of the vertex all the paths start from
+	private final int root;
+	//predecessor of every vertex on its path, -1 if not connected to root
+	private final int[] parent;
+	//number of edges on the path to every vertex, -1 if not connected to root
+	private final int[] distance;
+
+	/**
+	 * Creates a tree from the results of a search. See CompactGraph.bfsTree.
+	 */
+	BfsTree( CompactGraph graph, int root, int[] parent, int[] distance )
+	{
+		this.graph = graph;
+		this.root = root;
+		this.parent = parent;
+		this.distance = distance;
+	}
+
+	/**
+	 * Returns the vertex all the paths of this tree start from
+	 * @return the start vertex of the tree
+	 */
+	public String getStartVertex()
+	{
+		return graph.getVertex(root);
+	}
+
+	/**
+	 * Returns the number of edges on the shortest path to a vertex
+	 * @param endVertex - ending vertex of the path. Enclosing quotations are removed.
+	 * @return the distance from the start vertex to "endVertex", or -1 if there is no path or
+	 * 			"endVertex" is not on the graph
+	 */
+	public int distanceTo( String endVertex )
+	{
+		int end = graph.indexOf( endVertex.replaceAll("^\"|\"$", "") );
+		return end < 0 ? -1 : distance[end];
+	}
+
+	/**
+	 * Returns the shortest and alphabetically lowest path to a vertex by following predecessors, in time
+	 * proportional to the length of the path. Nothing is printed for a found path.
+	 * @param endVertex - ending vertex of the path. Enclosing quotations are removed.
+	 * @return the list of vertices on the path from the start vertex to "endVertex", the same path
+	 * 			CompactGraph.breadthFirstSearch returns
+	 * @throws NoPathException - if there is no path to "endVertex" or it is not on the graph
+	 */
+	public List<String> pathTo( String endVertex )
+	{
+		endVertex = endVertex.replaceAll("^\"|\"$", "");
+		int end = graph.indexOf(endVertex);
+		if( end < 0 || distance[end] < 0 )
+			throw new NoPathException( getStartVertex(), endVertex );
+
+		String[] path = new String[ distance[end] + 1 ];
+		for( int index = distance[end], vertex = end; index >= 0; index--, vertex = parent[vertex] )
+			path[index] = graph.getVertex(vertex);
+		return new ArrayList<String>( Arrays.asList(path) );
+	}
+
+	/**
+	 * Returns the number of vertices connected to the start vertex, including itself
+	 * @return the number of vertices that have a path in this tree
+	 */
+	public int reachableCount()
+	{
+		int reachable = 0;
+		for( int vertexDistance : distance )
+			if( vertexDistance >= 0 )
+				reachable++;
+		return reachable;
+	}
+}
@@ -0,0 +1,367 @@
+package mp5;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+public final class ComicGraph {
+
+	/**REP INVARIANT:
+	- characterNames and comicNames are sorted in ascending (String.compareTo) order with no duplicates
+	- groupComics.length == number of groups and every entry is a valid index of comicNames
+	- the members of group g are members[ groupOffsets[g] .. groupOffsets[g+1] ), sorted ascending with
+		no duplicates, and there is at least one
+	- the groups of character c are groups[ characterOffsets[c] .. characterOffsets[c+1] ), sorted
+		ascending with no duplicates, and c is a member of group g exactly when g is a group of c
+	*/
+
+	/**Abstraction Function
+	 - A group is a run of consecutive rows of the data file with the same comic. Group "g" maps to the
+	 	comic comicNames[groupComics[g]] and the characters characterNames[members of g]. A comic that
+	 	appears in several runs has several groups.
+	 - The graph this represents is the one MarvelGenerator.generateGraph builds from the same file:
+	 	its vertices are the characters, and two different characters are connected by an edge labelled
+	 	with each comic of the groups they are both members of. The edges are never stored, they are
+	 	found by going from a character to its groups and from each group to its members.
+	 */
+
+	//character names indexed by character id, sorted
+	private final String[] characterNames;
+	//distinct comic names indexed by comic id, sorted
+	private final String[] comicNames;
+	//comic id of every group
+	private final int[] groupComics;
+	//start of each group's members in members
+	private final int[] groupOffsets;
+	//character ids of every group, one row per group
+	private final int[] members;
+	//start of each character's groups in groups
+	private final int[] characterOffsets;
+	//group ids of every character, one row per character
+	private final int[] groups;
+
+	/**
+	 * Creates a ComicGraph of the rows of a data file. Use MarvelGenerator.generateComicGraph to build one.
+	 * @param rows - rows of a data file with the same format as the Marvel Dataset
+	 */
+	ComicGraph( TsvFile rows )
+	{
+		//Give the characters and comics ids in alphabetical order
+		TreeSet<String> characterSet = new TreeSet<String>();
+		TreeSet<String> comicSet = new TreeSet<String>();
+		for( int row = 0; row < rows.rowCount(); row++ )
+		{
+			characterSet.add( rows.getCharacter(row) );
+			comicSet.add( rows.getComic(row) );
+		}
+		characterNames = characterSet.toArray( new String[characterSet.size()] );
+		comicNames = comicSet.toArray( new String[comicSet.size()] );
+		Map<String, Integer> characterIds = idsOf(characterNames);
+		Map<String, Integer> comicIds = idsOf(comicNames);
+
+		//Split the rows into groups, sorting each group's members and dropping repeated characters
+		int[] groupComics = new int[ rows.rowCount() ];
+		int[] groupOffsets = new int[ rows.rowCount() + 1 ];
+		int[] members = new int[ rows.rowCount() ];
+		int groupCount = 0, memberCount = 0;
+		for( int first = 0, last; first < rows.rowCount(); first = last )
+		{
+			last = first + 1;
+			while( last < rows.rowCount() && rows.sameComic(last, first) )
+				last++;
+			int groupStart = memberCount;
+			for( int row = first; row < last; row++ )
+				members[memberCount++] = characterIds.get( rows.getCharacter(row) );
+			Arrays.sort(members, groupStart, memberCount);
+			memberCount = groupStart + unique(members, groupStart, memberCount);
+			groupComics[groupCount] = comicIds.get( rows.getComic(first) );
+			groupOffsets[++groupCount] = memberCount;
+		}
+		this.groupComics = Arrays.copyOf(groupComics, groupCount);
+		this.groupOffsets = Arrays.copyOf(groupOffsets, groupCount + 1);
+		this.members = Arrays.copyOf(members, memberCount);
+
+		//Invert the groups into each character's groups. Groups are visited in order, so each row is sorted.
+		characterOffsets = new int[ characterNames.length + 1 ];
+		for( int member = 0; member < memberCount; member++ )
+			characterOffsets[ members[member] + 1 ]++;
+		for( int character = 0; character < characterNames.length; character++ )
+			characterOffsets[character+1] += characterOffsets[character];
+		groups = new int[memberCount];
+		int[] next = Arrays.copyOf(characterOffsets, characterNames.length);
+		for( int group = 0; group < groupCount; group++ )
+			for( int member = groupOffsets[group]; member < groupOffsets[group+1]; member++ )
+				groups[ next[members[member]]++ ] = group;
+	}
+
+	/**
+	 * Returns the number of vertices (characters) on the graph
+	 * @return the number of vertices on the graph
+	 */
+	public int vertexCount()
+	{
+		return characterNames.length;
+	}
+
+	/**
+	 * Returns the number of groups (runs of rows with the same comic) in the graph
+	 * @return the number of groups in the graph
+	 */
+	public int groupCount()
+	{
+		return groupComics.length;
+	}
+
+	/**
+	 * Returns the id of a vertex
+	 * @param vertex - the vertex whose id you want to obtain
+	 * @return the id of "vertex", or -1 if "vertex" is not on the graph
+	 */
+	public int indexOf( String vertex )
+	{
+		int id = Arrays.binarySearch(characterNames, vertex);
+		return id >= 0 ? id : -1;
+	}
+
+	/**
+	 * Returns the name of the vertex with the given id
+	 * @param id - id of the vertex, 0 <= id < vertexCount()
+	 * @return the name of the vertex
+	 */
+	public String getVertex( int id )
+	{
+		return characterNames[id];
+	}
+
+	/**
+	 * Returns the neighbours of a vertex if the vertex exists in the graph
+	 * @param vertex - vertex whose neighbours you want to obtain
+	 * @return an unmodifiable list of the neighbours of "vertex" in alphabetical order (empty if no neighbours).
+	 * @throws IllegalArgumentException - if "vertex" does not exist on the graph
+	 */
+	public List<String> getNeighbours( String vertex )
+	{
+		int id = indexOf(vertex);
+		if( id < 0 )
+		{
+			System.out.println( vertex + " does not exist" );
+			throw new IllegalArgumentException();
+		}
+		int count = 0;
+		for( int group = characterOffsets[id]; group < characterOffsets[id+1]; group++ )
+			count += groupOffsets[groups[group]+1] - groupOffsets[groups[group]];
+		int[] neighbours = new int[count];
+		count = 0;
+		for( int group = characterOffsets[id]; group < characterOffsets[id+1]; group++ )
+			for( int member = groupOffsets[groups[group]]; member < groupOffsets[groups[group]+1]; member++ )
+				if( members[member] != id )
+					neighbours[count++] = members[member];
+		Arrays.sort(neighbours, 0, count);
+		count = unique(neighbours, 0, count);
+
+		List<String> names = new ArrayList<String>();
+		for( int index = 0; index < count; index++ )
+			names.add( characterNames[neighbours[index]] );
+		return Collections.unmodifiableList(names);
+	}
+
+	/**
+	 * Returns string representation of alphabetically lowest path between 2 vertices,
+	 * given a list of the vertices on the path. (Uses the alphabetically lowest edges)
+	 *@param verticesOnPath - vertices on the path
+	 *@return - a string representation of "verticesOnPath" with alphabetically lowest edges.
+	 *@throws IllegalArgumentException - if two consecutive vertices on the path are not connected
+	 */
+	public String pathToString( List<String> verticesOnPath )
+	{
+		StringBuilder path = new StringBuilder();
+
+		for( int index = 1; index < verticesOnPath.size(); index++ )
+		{
+			String start = verticesOnPath.get(index-1);
+			String end = verticesOnPath.get(index);
+			int lowestEdge = lowestComic( indexOf(start), indexOf(end) );
+			if( lowestEdge < 0 )
+				throw new IllegalArgumentException();
+
+			//String representation for the 2 vertices and the edge connecting them
+			path.append( start + " and " + end + " appear in " + comicNames[lowestEdge] + "\n" );
+		}
+		return path.toString();
+	}
+
+	/**
+	 * Returns the alphabetically lowest comic 2 different characters are both in
+	 * @return the id of the lowest comic of the groups both are members of, or -1 if either id is -1,
+	 * 			the ids are the same or the characters share no group
+	 */
+	private int lowestComic( int from, int to )
+	{
+		if( from < 0 || to < 0 || from == to )
+			return -1;
+		//Both rows of groups are sorted, so walk them together to find the shared groups
+		int lowest = -1;
+		int fromGroup = characterOffsets[from], toGroup = characterOffsets[to];
+		while( fromGroup < characterOffsets[from+1] && toGroup < characterOffsets[to+1] )
+		{
+			if( groups[fromGroup] < groups[toGroup] )
+				fromGroup++;
+			else if( groups[fromGroup] > groups[toGroup] )
+				toGroup++;
+			else
+			{
+				int comic = groupComics[groups[fromGroup]];
+				if( lowest < 0 || comic < lowest ) //Comic ids are in alphabetical order
+					lowest = comic;
+				fromGroup++;
+				toGroup++;
+			}
+		}
+		return lowest;
+	}
+
+	/**
+	 * Conducts a breadth first search for the shortest and alphabetically lowest path between 2 vertices.
+	 * Returns the same path as SimpleGraph.breadthFirstSearch on the graph built from the same file.
+	 * @param startVertex - starting vertex for the path
+	 * @param endVertex - ending vertex for the path
+	 * @return the list of vertices on the shortest path from "startVertex" to "endVertex"
+	 * @throws NoPathException - if there is no path between the vertices or either is not on the graph
+	 *
+	 * The search goes level by level from endVertex to find the distance of every vertex closer to
+	 * endVertex than startVertex is. A level visits every unexpanded group of its vertices, and then
+	 * every member of those groups, so each group is only scanned once per search instead of scanning
+	 * every edge of a comic's clique. The path is then walked from startVertex, taking the alphabetically
+	 * lowest neighbour one step closer to endVertex each step.
+	 */
+	public List<String> breadthFirstSearch( String startVertex, String endVertex )
+	{
+		startVertex = startVertex.replaceAll("^\"|\"$", ""); //Remove enclosing quotations
+		endVertex = endVertex.replaceAll("^\"|\"$", "");
+
+		if( endVertex.equals(startVertex) ) //start and end are same just return startPath
+		{
+			List<String> startPath = new ArrayList<String>();
+			startPath.add(startVertex);
+			System.out.println( "Path from " + startVertex + " to " + endVertex + " is " + startVertex + "\n");
+			return startPath;
+		}
+
+		int start = indexOf(startVertex);
+		int end = indexOf(endVertex);
+		if( start < 0 || end < 0 ) //No vertices to search between
+		{
+			System.out.println( (start < 0 ? startVertex : endVertex) + " does not exist" );
+			throw new NoPathException(startVertex, endVertex);
+		}
+
+		int[] path = shortestPath(start, end);
+		if( path == null )
+			throw new NoPathException(startVertex, endVertex ); //No path between the vertices found
+
+		List<String> finalPath = new ArrayList<String>();
+		for( int vertex : path )
+			finalPath.add( characterNames[vertex] );
+		System.out.println( pathToString(finalPath));
+		return finalPath;
+	}
+
+	/**
+	 * Searches for the shortest and alphabetically lowest path between 2 vertices. See breadthFirstSearch.
+	 * @param start - id of the starting vertex
+	 * @param end - id of the ending vertex, != start
+	 * @return the ids of the vertices on the path, or null if there is no path
+	 */
+	private int[] shortestPath( int start, int end )
+	{
+		//Distance of every visited vertex from end, -1 if not visited
+		int[] distance = new int[characterNames.length];
+		Arrays.fill(distance, -1);
+		boolean[] expanded = new boolean[groupComics.length];
+		//Vertices in the order they were visited, so level by level. The frontier is order[ levelStart .. visited )
+		int[] order = new int[characterNames.length];
+		distance[end] = 0;
+		order[0] = end;
+		int levelStart = 0, visited = 1;
+
+		while( distance[start] < 0 )
+		{
+			if( levelStart == visited )
+				return null; //Ran out of vertices, no path between the vertices
+
+			int levelEnd = visited;
+			for( int index = levelStart; index < levelEnd; index++ )
+			{
+				int vertex = order[index];
+				for( int group = characterOffsets[vertex]; group < characterOffsets[vertex+1]; group++ )
+				{
+					if( expanded[groups[group]] )
+						continue; //Every member already has a distance of at most this level + 1
+					expanded[groups[group]] = true;
+					for( int member = groupOffsets[groups[group]]; member < groupOffsets[groups[group]+1]; member++ )
+					{
+						if( distance[members[member]] < 0 )
+						{
+							distance[members[member]] = distance[vertex] + 1;
+							order[visited++] = members[member];
+						}
+					}
+				}
+			}
+			levelStart = levelEnd;
+		}
+
+		//Every level closer to end than start is complete, so walk from start taking the lowest neighbour
+		//one step closer. Members are sorted, so the first one found in a group is that group's lowest.
+		int[] path = new int[ distance[start] + 1 ];
+		path[0] = start;
+		for( int step = 1; step < path.length; step++ )
+		{
+			int current = path[step-1];
+			int lowest = -1;
+			for( int group = characterOffsets[current]; group < characterOffsets[current+1]; group++ )
+			{
+				for( int member = groupOffsets[groups[group]]; member < groupOffsets[groups[group]+1]; member++ )
+				{
+					if( distance[members[member]] == path.length - 1 - step )
+					{
+						if( lowest < 0 || members[member] < lowest )
+							lowest = members[member];
+						break;
+					}
+				}
+			}
+			path[step] = lowest;
+		}
+		return path;
+	}
+
+	/**
+	 * Removes repeated values from sorted values[ from .. to ), keeping the unique ones at the front
+	 * @return the number of unique values, now in values[ from .. from + returned value )
+	 * @modifies values
+	 */
+	private static int unique( int[] values, int from, int to )
+	{
+		int count = 0;
+		for( int index = from; index < to; index++ )
+			if( count == 0 || values[index] != values[from + count - 1] )
+				values[from + count++] = values[index];
+		return count;
+	}
+
+	/**
+	 * Maps every name to its index in "names"
+	 */
+	private static Map<String, Integer> idsOf( String[] names )
+	{
+		Map<String, Integer> ids = new HashMap<String, Integer>();
+		for( int id = 0; id < names.length; id++ )
+			ids.put(names[id], id);
+		return ids;
+	}
+}
@@ -0,0 +1,1245 @@
+package mp5;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+public final class CompactGraph {
+
+	/**REP INVARIANT:
+	- vertexNames and labelNames are sorted in ascending (String.compareTo) order with no duplicates
+	- offsets.length == vertexNames.length + 1, offsets[0] == 0 and offsets is non-decreasing
+	- the neighbours of vertex v are targets[ offsets[v] .. offsets[v+1] ), sorted ascending,
+		with no duplicates and never v itself
+	- if w is a neighbour of v then v is a neighbour of w
+	- labelOffsets.length == targets.length + 1 and every adjacency entry has at least one label
+	- lowestLabels.length == targets.length and lowestLabels[e] is the smallest of entry e's label ids
+	- searches and bidirectionalSearches only hold state that no query is using
+	*/
+
+	/**Abstraction Function
+	 - Vertex "id" maps to the vertex named vertexNames[id]. Because the names are sorted, comparing
+	 	two ids gives the same answer as comparing the two vertex names alphabetically.
+	 - Adjacency entry "e" in targets (compressed sparse row layout) maps to the edges between the
+	 	vertex owning that row and targets[e]. The labels of those edges are
+	 	labelNames[ labels[labelOffsets[e] .. labelOffsets[e+1]) ].
+	 */
+
+	//vertex names indexed by vertex id, sorted
+	private final String[] vertexNames;
+	//edge labels indexed by label id, sorted
+	private final String[] labelNames;
+	//row start of each vertex in targets
+	private final int[] offsets;
+	//neighbour ids of every vertex, one row per vertex
+	private final int[] targets;
+	//row start of each adjacency entry in labels
+	private final int[] labelOffsets;
+	//label ids of the edges for every adjacency entry
+	private final int[] labels;
+	//lowest label id of every adjacency entry, so a path is rendered without looking at all its labels
+	private final int[] lowestLabels;
+
+	//Search state of finished queries, reused by later queries so they don't allocate arrays per vertex.
+	//A query takes one out (or makes one if none is free) and puts it back when it is done.
+	private final ConcurrentLinkedQueue<Search> searches = new ConcurrentLinkedQueue<Search>();
+	private final ConcurrentLinkedQueue<BidirectionalState> bidirectionalSearches = new ConcurrentLinkedQueue<BidirectionalState>();
+
+	//A round is searched bottom-up when the frontier has more than 1/BOTTOM_UP_FACTOR of the unvisited edges
+	private static final int BOTTOM_UP_FACTOR = 1;
+	//Largest number of vertex ids a task searches without splitting in a bottom-up round
+	private static final int BLOCK_SIZE = 256;
+	//Largest number of frontier vertices a task searches without splitting in a top-down round
+	private static final int FRONTIER_BLOCK_SIZE = 32;
+	//Number of end vertices batchSearch searches from together, one bit of a long each
+	private static final int BATCH_SIZE = 64;
+
+	//Work-stealing pools the searches of every graph share, one per thread count, so a search does not
+	//start threads. Made on first use and kept until shutdownSearchPools(). Their workers are daemons
+	//that the pool retires once idle for a while, so an unused pool holds no threads.
+	private static final ConcurrentHashMap<Integer, ForkJoinPool> SEARCH_POOLS = new ConcurrentHashMap<Integer, ForkJoinPool>();
+
+	/**
+	 * Creates a CompactGraph from already compressed arrays. Use SimpleGraph.compile() to build one.
+	 * @requires the arrays satisfy the rep invariant and are not modified afterwards
+	 */
+	CompactGraph( String[] vertexNames, String[] labelNames, int[] offsets, int[] targets,
+			int[] labelOffsets, int[] labels, int[] lowestLabels )
+	{
+		this.vertexNames = vertexNames;
+		this.labelNames = labelNames;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.labelOffsets = labelOffsets;
+		this.labels = labels;
+		this.lowestLabels = lowestLabels;
+	}
+
+	//The arrays of the rep, used by GraphSnapshot to write the graph and DistanceOracle to index it. Callers must not modify them.
+	String[] vertexNames() { return vertexNames; }
+	String[] labelNames() { return labelNames; }
+	int[] offsets() { return offsets; }
+	int[] targets() { return targets; }
+	int[] labelOffsets() { return labelOffsets; }
+	int[] labels() { return labels; }
+	int[] lowestLabels() { return lowestLabels; }
+
+	/**
+	 * Returns the number of vertices on the graph
+	 * @return the number of vertices on the graph
+	 */
+	public int vertexCount()
+	{
+		return vertexNames.length;
+	}
+
+	/**
+	 * Returns the id of a vertex
+	 * @param vertex - the vertex whose id you want to obtain
+	 * @return the id of "vertex", or -1 if "vertex" is not on the graph
+	 */
+	public int indexOf( String vertex )
+	{
+		int id = Arrays.binarySearch(vertexNames, vertex);
+		return id >= 0 ? id : -1;
+	}
+
+	/**
+	 * Returns the name of the vertex with the given id
+	 * @param id - id of the vertex, 0 <= id < vertexCount()
+	 * @return the name of the vertex
+	 */
+	public String getVertex( int id )
+	{
+		return vertexNames[id];
+	}
+
+	/**
+	 * Returns the neighbours of a vertex if the vertex exists in the graph
+	 * @param vertex - vertex whose neighbours you want to obtain
+	 * @return an unmodifiable list of the neighbours of "vertex" in alphabetical order (empty if no neighbours).
+	 * @throws IllegalArgumentException - if "vertex" does not exist on the graph
+	 */
+	public List<String> getNeighbours( String vertex )
+	{
+		final int id = indexOf(vertex);
+		if( id < 0 )
+		{
+			System.out.println( vertex + " does not exist" );
+			throw new IllegalArgumentException();
+		}
+		return new AbstractList<String>()
+		{
+			public String get( int index )
+			{
+				if( index < 0 || index >= size() )
+					throw new IndexOutOfBoundsException();
+				return vertexNames[ targets[offsets[id] + index] ];
+			}
+
+			public int size()
+			{
+				return offsets[id+1] - offsets[id];
+			}
+		};
+	}
+
+	/**
+	 * Returns string representation of alphabetically lowest path between 2 vertices,
+	 * given a list of the vertices on the path. (Uses the alphabetically lowest edges)
+	 *@param verticesOnPath - vertices on the path
+	 *@return - a string representation of "verticesOnPath" with alphabetically lowest edges.
+	 *@throws IllegalArgumentException - if two consecutive vertices on the path are not connected
+	 */
+	public String pathToString( List<String> verticesOnPath )
+	{
+		StringBuilder path = new StringBuilder();
+
+		for( int index = 1; index < verticesOnPath.size(); index++ )
+		{
+			String start = verticesOnPath.get(index-1);
+			String end = verticesOnPath.get(index);
+			int entry = entryOf( indexOf(start), indexOf(end) );
+			if( entry < 0 )
+				throw new IllegalArgumentException();
+
+			int lowestEdge = lowestLabels[entry];
+
+			//String representation for the 2 vertices and the edge connecting them
+			path.append( start + " and " + end + " appear in " + labelNames[lowestEdge] + "\n" );
+		}
+		return path.toString();
+	}
+
+	/**
+	 * Returns the position in targets of the adjacency entry from "from" to "to"
+	 * @return the entry index, or -1 if either id is -1 or the vertices are not neighbours
+	 */
+	private int entryOf( int from, int to )
+	{
+		if( from < 0 || to < 0 )
+			return -1;
+		int entry = Arrays.binarySearch(targets, offsets[from], offsets[from+1], to);
+		return entry >= 0 ? entry : -1;
+	}
+
+	/**
+	 * Conducts a breadth first search for the shortest and alphabetically lowest path between 2 vertices,
+	 * using one or more threads to conduct the search
+	 * @param startVertex - starting vertex for the path
+	 * @param endVertex - ending vertex for the path
+	 * @param threads - number of threads to use when searching
+	 * @return the list of vertices on the shortest path from "startVertex" to "endVertex"
+	 * @throws NoPathException - if there is no path between the vertices or either is not on the graph
+	 *
+	 * Thread Safety Argument:
+	 * 1. The graph arrays are never modified after construction, so all threads may read them freely.
+	 * 2. Each block of a level collects the vertices it finds in its own buffer, and the buffers are
+	 * 		only read after the whole level is searched (ForkJoinTask.join). The depth and rank of the
+	 * 		vertices are only written by this thread between search rounds, while no search thread is running.
+	 * 3. Since all threads can only work on the same "level" of vertices from startVertex
+	 * 		there is no possibility of a thread finding endVertex first on a further level and
+	 * 		causing a longer path to be returned
+	 * 4. In a top-down round no thread takes a lock. A neighbour is claimed by the one thread whose
+	 * 		compare-and-set of its predecessor from a value below the query's base succeeds, and only
+	 * 		that thread adds it to the next level. A lower ranked predecessor replaces the current one with
+	 * 		a compare-and-set that is retried while it still has the lower rank, so the lowest one always
+	 * 		ends up stored.
+	 * 		In a bottom-up round the vertex ids are split into disjoint blocks, so each vertex is handled
+	 * 		by exactly one thread, which is then the only thread to write its predecessor.
+	 * 5. Each round is searched either top-down (frontier vertices scan their neighbours) or bottom-up
+	 * 		(unvisited vertices scan their neighbours for frontier vertices), whichever has fewer
+	 * 		edges to scan. Both compare every frontier neighbour of a new vertex, so they give the
+	 * 		same alphabetically lowest paths.
+	 * 6. The ForkJoinPool of each thread count is shared by every search. Each search waits for its own
+	 * 		LevelTask, and the tasks of different searches share no state, so searches running at the same
+	 * 		time on one pool do not see each other's work.
+	 */
+	public List<String> breadthFirstSearch( String startVertex, String endVertex, int threads )
+	{
+		startVertex = startVertex.replaceAll("^\"|\"$", ""); //Remove enclosing quotations
+		endVertex = endVertex.replaceAll("^\"|\"$", "");
+
+		if( endVertex.equals(startVertex) ) //start and end are same just return startPath
+		{
+			List<String> startPath = new ArrayList<String>();
+			startPath.add(startVertex);
+			System.out.println( "Path from " + startVertex + " to " + endVertex + " is " + startVertex + "\n");
+			return startPath;
+		}
+
+		int start = indexOf(startVertex);
+		int end = indexOf(endVertex);
+		if( start < 0 || end < 0 ) //No vertices to search between
+		{
+			System.out.println( (start < 0 ? startVertex : endVertex) + " does not exist" );
+			throw new NoPathException(startVertex, endVertex);
+		}
+
+		int[] path = levelSearch(start, end, threads);
+		if( path == null )
+			throw new NoPathException(startVertex, endVertex ); //No path between the vertices found
+
+		List<String> finalPath = toNames(path);
+		System.out.println( pathToString(finalPath));
+		return finalPath;
+	}
+
+	/**
+	 * Searches level by level from "start" for the shortest and alphabetically lowest path to "end".
+	 * See breadthFirstSearch. A single thread searches in the calling thread without creating a pool.
+	 * @param start - id of the starting vertex
+	 * @param end - id of the ending vertex, != start
+	 * @param threads - number of threads to use when searching
+	 * @return the ids of the vertices on the path, or null if there is no path
+	 */
+	private int[] levelSearch( int start, int end, int threads )
+	{
+		return levelSearch(start, end, threads, Integer.MAX_VALUE, null);
+	}
+
+	/**
+	 * Searches like levelSearch, reporting every finished level and giving up at a distance
+	 * @param maxDepth - largest number of edges on the path, > 0
+	 * @param listener - told about every level finished without finding "end", or null
+	 * @return the ids of the vertices on the path, or null if there is no path of at most "maxDepth" edges
+	 */
+	int[] levelSearch( int start, int end, int threads, int maxDepth, SearchListener listener )
+	{
+		Search search = takeSearch();
+		try
+		{
+			runSearch(search, start, end, threads, maxDepth, listener);
+			return search.visited(end) ? search.pathTo(end) : null;
+		}
+		finally
+		{
+			searches.offer(search);
+		}
+	}
+
+	/**
+	 * Returns the tree of the shortest and alphabetically lowest paths from a vertex to every vertex it is
+	 * connected to, searched like breadthFirstSearch but without stopping at an end vertex. The tree answers
+	 * any number of pathTo queries without searching again. Nothing is printed.
+	 * @param startVertex - root of the tree. Enclosing quotations are removed.
+	 * @param threads - number of threads to use when searching
+	 * @return the tree of paths from "startVertex"
+	 * @throws IllegalArgumentException - if "startVertex" is not on the graph
+	 */
+	public BfsTree bfsTree( String startVertex, int threads )
+	{
+		startVertex = startVertex.replaceAll("^\"|\"$", ""); //Remove enclosing quotations
+		int start = indexOf(startVertex);
+		if( start < 0 )
+			throw new IllegalArgumentException( startVertex + " does not exist" );
+
+		Search search = takeSearch();
+		try
+		{
+			runSearch(search, start, -1, threads, Integer.MAX_VALUE, null);
+			//Copy the tree out, since the search state is reused by the next query
+			int[] parent = new int[vertexNames.length];
+			int[] depth = new int[vertexNames.length];
+			for( int vertex = 0; vertex < parent.length; vertex++ )
+			{
+				parent[vertex] = search.parentOf(vertex);
+				depth[vertex] = search.depthOf(vertex);
+			}
+			return new BfsTree(this, start, parent, depth);
+		}
+		finally
+		{
+			searches.offer(search);
+		}
+	}
+
+	/**
+	 * Returns a free search state, making a new one if every one is in use
+	 */
+	private Search takeSearch()
+	{
+		Search search = searches.poll();
+		return search != null ? search : new Search();
+	}
+
+	/**
+	 * Searches level by level from "start" until "end" is found or every vertex connected to "start" is
+	 * visited. See breadthFirstSearch.
+	 * @param search - state to search with, not used by any other query. It is started over from "start".
+	 * @param start - id of the starting vertex
+	 * @param end - id of the ending vertex, != start, or -1 to visit every connected vertex
+	 * @param threads - number of threads to use when searching
+	 * @param maxDepth - largest distance from "start" to search to, > 0
+	 * @param listener - told about every level finished without finding "end", or null
+	 * @modifies search. If "end" was found its path is in parent, otherwise depth holds the distance of
+	 * 			every vertex visited.
+	 */
+	private void runSearch( Search search, int start, int end, int threads, int maxDepth, SearchListener listener )
+	{
+		long startTime = System.nanoTime();
+		search.start(start);
+		int visited = 1;
+
+		//shared work-stealing pool of "threads" size, or none when this thread does all the searching
+		final ForkJoinPool pool = threads > 1 ? searchPool(threads) : null;
+
+		//Number of adjacency entries the frontier and the unvisited vertices would scan
+		long frontierEdges = degree(start);
+		long unvisitedEdges = targets.length - frontierEdges;
+
+		do
+		{
+			//Search bottom-up while the frontier has more edges to scan than the unvisited vertices
+			search.setDirection( frontierEdges * BOTTOM_UP_FACTOR > unvisitedEdges );
+			search.searchLevel(pool); //This thread is blocked till the whole level is searched
+
+			if( end >= 0 && search.visited(end) ) //Optimal path to endVertex found
+				return;
+
+			frontierEdges = search.finishLevel();
+			unvisitedEdges -= frontierEdges;
+			visited += search.frontierSize;
+			if( listener != null )
+				listener.levelSearched( search.level + 1, search.frontierSize, visited, System.nanoTime() - startTime );
+			if( search.level + 1 >= maxDepth ) //Paths through the next level would be too long
+				return;
+		}
+		while( search.updateSearch() ); //Updates search and continues if there is more work to be done.
+		//No path between the vertices found, or every connected vertex visited
+	}
+
+	/**
+	 * Returns the shared search pool of "threads" size, making it if it does not exist yet
+	 */
+	private static ForkJoinPool searchPool( int threads )
+	{
+		ForkJoinPool pool = SEARCH_POOLS.get(threads);
+		if( pool == null )
+		{
+			ForkJoinPool created = new ForkJoinPool(threads);
+			pool = SEARCH_POOLS.putIfAbsent(threads, created);
+			if( pool == null )
+				pool = created;
+			else
+				created.shutdown(); //Another thread made one first
+		}
+		return pool;
+	}
+
+	/**
+	 * Shuts down the thread pools multi-threaded searches share. Call this when no more searches with
+	 * more than one thread are coming, like before the program ends. A search that is still running
+	 * finishes its remaining levels in its own thread, and a later search makes a new pool.
+	 */
+	public static void shutdownSearchPools()
+	{
+		for( Integer threads : SEARCH_POOLS.keySet() )
+		{
+			ForkJoinPool pool = SEARCH_POOLS.remove(threads);
+			if( pool != null )
+				pool.shutdown();
+		}
+	}
+
+	/**
+	 * Conducts a bidirectional breadth first search for the shortest and alphabetically lowest path
+	 * between 2 vertices. Levels are grown from both ends, always from the side with fewer edges to
+	 * scan, until the two searches meet. This usually visits far fewer vertices than breadthFirstSearch.
+	 * @param startVertex - starting vertex for the path
+	 * @param endVertex - ending vertex for the path
+	 * @return the list of vertices on the shortest path from "startVertex" to "endVertex"
+	 * @throws NoPathException - if there is no path between the vertices or either is not on the graph
+	 *
+	 * Each side only knows the lowest path to the vertices it has seen, so the two halves can not just be
+	 * joined at a meeting vertex. Instead, once the shortest distance is known, the path is walked from
+	 * startVertex, taking the alphabetically lowest neighbour that is still on a shortest path each step.
+	 * Comparing paths from their first vertex, this gives the same path as breadthFirstSearch.
+	 */
+	public List<String> bidirectionalSearch( String startVertex, String endVertex )
+	{
+		startVertex = startVertex.replaceAll("^\"|\"$", ""); //Remove enclosing quotations
+		endVertex = endVertex.replaceAll("^\"|\"$", "");
+
+		if( endVertex.equals(startVertex) ) //start and end are same just return startPath
+		{
+			List<String> startPath = new ArrayList<String>();
+			startPath.add(startVertex);
+			System.out.println( "Path from " + startVertex + " to " + endVertex + " is " + startVertex + "\n");
+			return startPath;
+		}
+
+		int start = indexOf(startVertex);
+		int end = indexOf(endVertex);
+		if( start < 0 || end < 0 ) //No vertices to search between
+		{
+			System.out.println( (start < 0 ? startVertex : endVertex) + " does not exist" );
+			throw new NoPathException(startVertex, endVertex);
+		}
+
+		int[] path = bidirectionalPath(start, end);
+		if( path == null )
+			throw new NoPathException(startVertex, endVertex ); //No path between the vertices found
+
+		List<String> finalPath = toNames(path);
+		System.out.println( pathToString(finalPath));
+		return finalPath;
+	}
+
+	/**
+	 * Searches from both "start" and "end" for the shortest and alphabetically lowest path between them.
+	 * See bidirectionalSearch.
+	 * @param start - id of the starting vertex
+	 * @param end - id of the ending vertex, != start
+	 * @return the ids of the vertices on the path, or null if there is no path
+	 */
+	int[] bidirectionalPath( int start, int end )
+	{
+		BidirectionalState state = takeBidirectionalState();
+		try
+		{
+			return bidirectionalPath(start, end, state);
+		}
+		finally
+		{
+			releaseBidirectionalState(state);
+		}
+	}
+
+	/**
+	 * Returns a free bidirectional search state, started for a new query, making a new one if every one
+	 * is in use. Also used by DistanceOracle.distance.
+	 * @return a state no other query is using. Give it back with releaseBidirectionalState.
+	 */
+	BidirectionalState takeBidirectionalState()
+	{
+		BidirectionalState state = bidirectionalSearches.poll();
+		if( state == null )
+			state = new BidirectionalState(vertexNames.length);
+		state.start();
+		return state;
+	}
+
+	/**
+	 * Gives back a state from takeBidirectionalState once its query is done, so a later query reuses it
+	 * @requires "state" is not used after this call
+	 */
+	void releaseBidirectionalState( BidirectionalState state )
+	{
+		bidirectionalSearches.offer(state);
+	}
+
+	/**
+	 * Searches like bidirectionalPath(start, end) with the arrays of a search state. Depths are stamped
+	 * with the state's base, so a depth below base was left by an earlier query and means not visited.
+	 * @modifies state
+	 */
+	private int[] bidirectionalPath( int start, int end, BidirectionalState state )
+	{
+		final int base = state.base;
+		int[] forwardDepth = state.forwardDepth;
+		int[] backwardDepth = state.backwardDepth;
+		int[] forwardOrder = state.forwardOrder;
+		int[] backwardOrder = state.backwardOrder;
+		int[] onPath = state.onPath;
+
+		forwardDepth[start] = base;
+		forwardOrder[0] = start;
+		backwardDepth[end] = base;
+		backwardOrder[0] = end;
+		//The frontier of a side is order[ levelStart .. visited )
+		int forwardLevelStart = 0, forwardVisited = 1;
+		int backwardLevelStart = 0, backwardVisited = 1;
+
+		int distance = -1;
+		while( distance < 0 )
+		{
+			if( forwardLevelStart == forwardVisited || backwardLevelStart == backwardVisited )
+				return null; //One side ran out of vertices, no path between the vertices
+
+			//Expand the side whose frontier has fewer edges to scan
+			if( frontierEdges(forwardOrder, forwardLevelStart, forwardVisited)
+					<= frontierEdges(backwardOrder, backwardLevelStart, backwardVisited) )
+			{
+				int levelEnd = forwardVisited;
+				forwardVisited = expandLevel(forwardOrder, forwardLevelStart, levelEnd, forwardDepth, base);
+				forwardLevelStart = levelEnd;
+				distance = meetingDistance(forwardOrder, forwardLevelStart, forwardVisited, forwardDepth, backwardDepth, base);
+			}
+			else
+			{
+				int levelEnd = backwardVisited;
+				backwardVisited = expandLevel(backwardOrder, backwardLevelStart, levelEnd, backwardDepth, base);
+				backwardLevelStart = levelEnd;
+				distance = meetingDistance(backwardOrder, backwardLevelStart, backwardVisited, backwardDepth, forwardDepth, base);
+			}
+		}
+
+		//Mark the forward-visited vertices that are on some shortest path to endVertex. Going through
+		//them in reverse order sees every vertex after all the vertices of the next level.
+		//A vertex is on a path if its onPath is base.
+		for( int index = forwardVisited - 1; index >= 0; index-- )
+		{
+			int vertex = forwardOrder[index];
+			boolean on = backwardDepth[vertex] >= base
+					&& forwardDepth[vertex] - base + backwardDepth[vertex] - base == distance;
+			for( int entry = offsets[vertex]; entry < offsets[vertex+1] && !on; entry++ )
+			{
+				int neighbour = targets[entry];
+				on = onPath[neighbour] == base && forwardDepth[neighbour] == forwardDepth[vertex] + 1;
+			}
+			if( on )
+				onPath[vertex] = base;
+		}
+
+		//Walk from startVertex, taking the lowest neighbour one step closer on a shortest path.
+		//Neighbours are sorted, so the first one found is the lowest.
+		int[] path = new int[distance + 1];
+		path[0] = start;
+		for( int step = 1; step <= distance; step++ )
+		{
+			int current = path[step-1];
+			for( int entry = offsets[current]; entry < offsets[current+1]; entry++ )
+			{
+				int neighbour = targets[entry];
+				if( ( onPath[neighbour] == base && forwardDepth[neighbour] == base + step )
+						|| backwardDepth[neighbour] == base + distance - step )
+				{
+					path[step] = neighbour;
+					break;
+				}
+			}
+		}
+		return path;
+	}
+
+	/**
+	 * Visits the unvisited neighbours of the vertices in order[ levelStart .. levelEnd ), appending them
+	 * to "order" and giving them a depth one more than the level's. Depths are stamped with "base".
+	 * @return the new number of vertices in "order"
+	 * @modifies order, depth
+	 */
+	private int expandLevel( int[] order, int levelStart, int levelEnd, int[] depth, int base )
+	{
+		int visited = levelEnd;
+		for( int index = levelStart; index < levelEnd; index++ )
+		{
+			int vertex = order[index];
+			for( int entry = offsets[vertex]; entry < offsets[vertex+1]; entry++ )
+			{
+				int neighbour = targets[entry];
+				if( depth[neighbour] < base )
+				{
+					depth[neighbour] = depth[vertex] + 1;
+					order[visited++] = neighbour;
+				}
+			}
+		}
+		return visited;
+	}
+
+	/**
+	 * Returns the length of the shortest path through the vertices in order[ levelStart .. levelEnd )
+	 * that were also visited from the other side, or -1 if there are none. Depths are stamped with "base".
+	 */
+	private int meetingDistance( int[] order, int levelStart, int levelEnd, int[] depth, int[] otherDepth, int base )
+	{
+		int distance = -1;
+		for( int index = levelStart; index < levelEnd; index++ )
+		{
+			int vertex = order[index];
+			int through = depth[vertex] - base + otherDepth[vertex] - base;
+			if( otherDepth[vertex] >= base && ( distance < 0 || through < distance ) )
+				distance = through;
+		}
+		return distance;
+	}
+
+	/**
+	 * Finds the shortest and alphabetically lowest path between every start vertex and every end vertex,
+	 * like many calls to bidirectionalSearch but much faster for large tables. Enclosing quotations around
+	 * the vertices are removed, and nothing is printed.
+	 * @param startVertices - starting vertices of the paths
+	 * @param endVertices - ending vertices of the paths
+	 * @param listener - receives the result for every pair of a start and an end vertex. The results come
+	 * 			in batches of up to 64 end vertices, as soon as each batch is searched: for each start vertex in
+	 * 			order, the pairs with each end vertex of the batch in order.
+	 *
+	 * Up to 64 breadth first searches are run together, one from each end vertex of a batch, in the style
+	 * of a multi-source BFS: each vertex has a long with one bit per search that has visited it, and each
+	 * level scans the neighbours of a vertex once for every search whose frontier it is on. The batch stops
+	 * once every start vertex is visited by every search. Each search keeps the distance of the vertices
+	 * from its end vertex, so the path is then walked from the start vertex taking the alphabetically
+	 * lowest neighbour one step closer each step, which is the same path bidirectionalSearch returns.
+	 * Distances are kept as bytes, which is enough since neighbours are at most 1 level apart.
+	 */
+	public void batchSearch( List<String> startVertices, List<String> endVertices, PathListener listener )
+	{
+		String[] starts = new String[startVertices.size()];
+		int[] startIds = new int[starts.length];
+		for( int index = 0; index < starts.length; index++ )
+		{
+			starts[index] = startVertices.get(index).replaceAll("^\"|\"$", ""); //Remove enclosing quotations
+			startIds[index] = indexOf(starts[index]);
+		}
+
+		//Depth of every vertex from the end vertex of each search, kept modulo 256. Reused for every batch.
+		byte[][] depth = new byte[ Math.min(BATCH_SIZE, endVertices.size()) ][vertexNames.length];
+		for( int first = 0; first < endVertices.size(); first += BATCH_SIZE )
+		{
+			int count = Math.min(BATCH_SIZE, endVertices.size() - first);
+			String[] ends = new String[count];
+			int[] endIds = new int[count];
+			for( int search = 0; search < count; search++ )
+			{
+				ends[search] = endVertices.get(first + search).replaceAll("^\"|\"$", "");
+				endIds[search] = indexOf(ends[search]);
+			}
+
+			long[] seen = multiSourceSearch(endIds, startIds, depth);
+			for( int start = 0; start < starts.length; start++ )
+			{
+				for( int search = 0; search < count; search++ )
+				{
+					if( starts[start].equals(ends[search]) ) //start and end are same, path is just the start
+						listener.pathFound( starts[start], ends[search], 0, Collections.singletonList(starts[start]) );
+					else if( startIds[start] < 0 || endIds[search] < 0 || ( seen[startIds[start]] & 1L << search ) == 0 )
+						listener.noPath( starts[start], ends[search] );
+					else
+					{
+						List<String> path = toNames( walkToRoot(startIds[start], endIds[search], search, seen, depth[search]) );
+						listener.pathFound( starts[start], ends[search], path.size() - 1, path );
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Runs a breadth first search from every root at the same time, until every start vertex is visited
+	 * by every search or no search has a frontier left. See batchSearch.
+	 * @param roots - id of the root of each search, or -1 for a search that visits nothing
+	 * @param startIds - ids of the start vertices, -1 for vertices that are not on the graph
+	 * @param depth - filled with the depth modulo 256 of each vertex visited by search i in depth[i]
+	 * @return a long per vertex with bit i set if search i visited the vertex
+	 * @modifies depth
+	 */
+	private long[] multiSourceSearch( int[] roots, int[] startIds, byte[][] depth )
+	{
+		long[] seen = new long[vertexNames.length];
+		long[] visit = new long[vertexNames.length]; //searches whose frontier each vertex is on
+		long[] visitNext = new long[vertexNames.length];
+		long rootMask = 0; //searches that have a root
+		for( int search = 0; search < roots.length; search++ )
+		{
+			if( roots[search] < 0 )
+				continue;
+			seen[roots[search]] |= 1L << search;
+			visit[roots[search]] |= 1L << search;
+			depth[search][roots[search]] = 0;
+			rootMask |= 1L << search;
+		}
+
+		boolean frontier = rootMask != 0;
+		for( int level = 1; frontier && !allVisited(startIds, seen, rootMask); level++ )
+		{
+			//Every frontier vertex scans its neighbours once for all the searches it is on the frontier of
+			for( int vertex = 0; vertex < visit.length; vertex++ )
+			{
+				if( visit[vertex] == 0 )
+					continue;
+				for( int entry = offsets[vertex]; entry < offsets[vertex+1]; entry++ )
+				{
+					int neighbour = targets[entry];
+					long found = visit[vertex] & ~seen[neighbour];
+					if( found != 0 )
+					{
+						visitNext[neighbour] |= found;
+						seen[neighbour] |= found;
+					}
+				}
+			}
+
+			frontier = false;
+			for( int vertex = 0; vertex < visitNext.length; vertex++ )
+			{
+				for( long found = visitNext[vertex]; found != 0; found &= found - 1 )
+					depth[ Long.numberOfTrailingZeros(found) ][vertex] = (byte) level;
+				frontier |= visitNext[vertex] != 0;
+			}
+			long[] swap = visit;
+			visit = visitNext;
+			visitNext = swap;
+			Arrays.fill(visitNext, 0);
+		}
+		return seen;
+	}
+
+	/**
+	 * Checks if every start vertex on the graph has been visited by every search in "searches"
+	 */
+	private static boolean allVisited( int[] startIds, long[] seen, long searches )
+	{
+		for( int start : startIds )
+			if( start >= 0 && ( seen[start] & searches ) != searches )
+				return false;
+		return true;
+	}
+
+	/**
+	 * Walks from "start" to the root of a search of multiSourceSearch, taking the lowest neighbour one
+	 * level closer to the root each step. Neighbours are sorted, so the first one found is the lowest.
+	 * @requires "start" was visited by the search, and every vertex closer to the root than it too
+	 * @return the ids of the vertices on the path from "start" to "root"
+	 */
+	private int[] walkToRoot( int start, int root, int search, long[] seen, byte[] depth )
+	{
+		List<Integer> path = new ArrayList<Integer>();
+		path.add(start);
+		for( int current = start; current != root; )
+		{
+			byte closer = (byte) ( depth[current] - 1 );
+			for( int entry = offsets[current]; entry < offsets[current+1]; entry++ )
+			{
+				int neighbour = targets[entry];
+				//Neighbours are at most 1 level apart, so equal depths modulo 256 mean one level closer
+				if( ( seen[neighbour] & 1L << search ) != 0 && depth[neighbour] == closer )
+				{
+					current = neighbour;
+					break;
+				}
+			}
+			path.add(current);
+		}
+		int[] ids = new int[path.size()];
+		for( int index = 0; index < ids.length; index++ )
+			ids[index] = path.get(index);
+		return ids;
+	}
+
+	/**
+	 * Returns the number of adjacency entries of the vertices in order[ levelStart .. levelEnd )
+	 */
+	private long frontierEdges( int[] order, int levelStart, int levelEnd )
+	{
+		long edges = 0;
+		for( int index = levelStart; index < levelEnd; index++ )
+			edges += degree(order[index]);
+		return edges;
+	}
+
+	/**
+	 * Returns the number of neighbours of the vertex with the given id
+	 */
+	private int degree( int vertex )
+	{
+		return offsets[vertex+1] - offsets[vertex];
+	}
+
+	/**
+	 * Converts a path of vertex ids to the list of their names
+	 */
+	List<String> toNames( int[] path )
+	{
+		List<String> names = new ArrayList<String>(path.length);
+		for( int vertex : path )
+			names.add(vertexNames[vertex]);
+		return names;
+	}
+
+	//INNER CLASS
+	private class Search
+	{
+		/**This is a helper inner class to find the optimal path to all neighbours of a "level" of vertices
+		 * (ie vertices in frontier are a "level" as they are all equidistant from the start vertex)
+		 * and collect these neighbours as the next level of vertices in preparation of the next search
+		 *
+		 * Only the predecessor of each vertex on its path is kept, and the path is rebuilt from these at the end.
+		 * To choose between two predecessors without their paths, every vertex of a finished level gets a rank:
+		 * its position when the paths to the vertices of that level are sorted alphabetically. The lower
+		 * path to a new vertex is then the one through the lower ranked predecessor.
+		 *
+		 * A level is searched by a LevelTask, which splits the frontier (or the vertex ids, bottom-up) into
+		 * blocks for the threads of a ForkJoinPool. Idle threads steal blocks from busy ones, so a thread
+		 * stuck on a vertex with many neighbours does not hold up the others. Each block collects the
+		 * vertices it finds in its own Chunk, so threads never share a next-level queue.
+		 *
+		 * A Search is reused by one query after another, so its arrays are only allocated once. Rather than
+		 * clearing them for every query, each query gets a new "base" (epoch), larger than any value stored
+		 * by the queries before it, and stores parent and depth values as base + value. A value below base
+		 * was left by an earlier query and means not visited, so starting a query costs nothing per vertex.
+		 */
+
+		//Predecessor of every visited vertex on its path as base + id. The root is its own predecessor.
+		private final AtomicIntegerArray parent;
+		//Distance of every vertex of a finished level from the root, as base + distance
+		private final int[] depth;
+		//Alphabetical position of the path to every vertex among the paths of its level
+		private final int[] rank;
+
+		//vertices of the current "level" in rank order, in frontier[ 0 .. frontierSize )
+		private final int[] frontier;
+		private int frontierSize;
+		//buffer the vertices found by a level are sorted in
+		private final long[] order;
+		//vertices found by the last searched level, null if none
+		private Chunk found;
+		//buffer for the vertices found by a level searched without a pool
+		private final Chunk spare = new Chunk();
+
+		//distance of the current "level" from the start vertex
+		private int level;
+		//true if this round searches bottom-up, false if top-down
+		private boolean bottomUp;
+		//stamp of the current query. Every parent and depth value it stores is in base .. base+stride-1.
+		private int base = 0;
+		private final int stride = Math.max(1, vertexNames.length);
+
+		/**
+		 * Creates a search, ready to be started
+		 */
+		private Search()
+		{
+			parent = new AtomicIntegerArray(vertexNames.length);
+			depth = new int[vertexNames.length];
+			rank = new int[vertexNames.length];
+			frontier = new int[vertexNames.length];
+			order = new long[vertexNames.length];
+		}
+
+		/**
+		 * Starts a new query from "root", forgetting the previous one
+		 * @param root - vertex id to start the search at
+		 * @modifies this
+		 */
+		private void start( int root )
+		{
+			if( base > Integer.MAX_VALUE - 2 * stride ) //Out of stamps, clear the arrays and start over
+			{
+				for( int vertex = 0; vertex < vertexNames.length; vertex++ )
+					parent.set(vertex, 0);
+				Arrays.fill(depth, 0);
+				base = 0;
+			}
+			base += stride;
+			parent.set(root, base + root);
+			depth[root] = base;
+			frontier[0] = root; //Add startVertex to the frontier to start the search.
+			frontierSize = 1;
+			found = null;
+			level = 0;
+			bottomUp = false;
+		}
+
+		/**
+		 * Checks if a vertex has been visited by this query
+		 */
+		private boolean visited( int vertex )
+		{
+			return parent.get(vertex) >= base;
+		}
+
+		/**
+		 * Returns the predecessor of a vertex on its path, -1 if it has not been visited
+		 */
+		private int parentOf( int vertex )
+		{
+			int stamped = parent.get(vertex);
+			return stamped >= base ? stamped - base : -1;
+		}
+
+		/**
+		 * Returns the distance of a vertex of a finished level from the root, -1 if it is not finished
+		 */
+		private int depthOf( int vertex )
+		{
+			return depth[vertex] >= base ? depth[vertex] - base : -1;
+		}
+
+		/**
+		 * Moves on to the next round of searching. Also returns true or false indicating if there are
+		 * any vertices left to visit in search.
+		 * @requires finishLevel() has made the last searched level the frontier
+		 * @modifies found, level
+		 * @return true if the new frontier is not empty, false otherwise
+		 */
+		private boolean updateSearch( )
+		{
+			found = null;
+			level++;
+			return frontierSize > 0;
+		}
+
+		/**
+		 * Chooses the direction of the next round of searching
+		 * @param bottomUp - true to search bottom-up, false to search top-down
+		 * @modifies bottomUp
+		 */
+		private void setDirection( boolean bottomUp )
+		{
+			this.bottomUp = bottomUp;
+		}
+
+		/**
+		 * Finds the predecessor on the shortest and alphabetically lowest path for every neighbour of
+		 * the frontier, and collects these neighbours in "found".
+		 * @param pool - pool to search with, or null to search in this thread
+		 * @modifies parent, found
+		 */
+		private void searchLevel( ForkJoinPool pool )
+		{
+			if( pool != null )
+			{
+				try
+				{
+					found = pool.invoke( new LevelTask( 0, bottomUp ? depth.length : frontierSize, true ) );
+					return;
+				}
+				catch( RejectedExecutionException e ) //Pool was shut down, so search the level in this thread
+				{
+				}
+			}
+			spare.clear(); //Collect into the spare chunk rather than a new one
+			if( bottomUp )
+				searchBottomUp(0, depth.length, spare);
+			else
+				searchTopDown(0, frontierSize, spare);
+			found = spare.size > 0 ? spare : null;
+		}
+
+		/**
+		 * Finishes the level of vertices in "found" by setting their depth and ranking their paths, and
+		 * makes them the frontier in rank order. Paths are ranked by their predecessor's rank first and
+		 * then by their last vertex.
+		 * @return the number of adjacency entries of the finished level
+		 * @modifies depth, rank, frontier
+		 */
+		private long finishLevel()
+		{
+			int size = 0;
+			for( Chunk chunk = found; chunk != null; chunk = chunk.next )
+				size += chunk.size;
+
+			long edges = 0;
+			int index = 0;
+			for( Chunk chunk = found; chunk != null; chunk = chunk.next )
+			{
+				for( int position = 0; position < chunk.size; position++ )
+				{
+					int vertex = chunk.vertices[position];
+					depth[vertex] = base + level + 1;
+					order[index++] = (long) rank[parentOf(vertex)] << 32 | vertex;
+					edges += degree(vertex);
+				}
+			}
+			Arrays.sort(order, 0, size);
+
+			for( index = 0; index < size; index++ )
+			{
+				frontier[index] = (int) order[index];
+				rank[frontier[index]] = index;
+			}
+			frontierSize = size;
+			return edges;
+		}
+
+		/**
+		 * Rebuilds the path from the root to a visited vertex by following predecessors
+		 * @param vertex - a vertex of the finished levels or of the level just searched
+		 * @return the ids of the vertices on the path, starting with the root
+		 */
+		private int[] pathTo( int vertex )
+		{
+			int length = 1;
+			for( int current = vertex; parentOf(current) != current; current = parentOf(current) )
+				length++;
+			int[] path = new int[length];
+			for( int index = length - 1; index >= 0; index-- )
+			{
+				path[index] = vertex;
+				vertex = parentOf(vertex);
+			}
+			return path;
+		}
+
+		/**
+		 * Top-down step for frontier[ from .. to ): every frontier vertex offers itself as predecessor
+		 * to each of its unvisited neighbours.
+		 * @param newVertices - buffer the claimed neighbours are added to
+		 */
+		private void searchTopDown( int from, int to, Chunk newVertices )
+		{
+			for( int index = from; index < to; index++ )
+			{
+				int currentVertex = frontier[index];
+
+				//Process each neighbour of currentVertex
+				for( int entry = offsets[currentVertex]; entry < offsets[currentVertex+1]; entry++ )
+				{
+					int neighbour = targets[entry];
+					if( depth[neighbour] >= base ) //Already found optimal path for "neighbour"
+						continue;
+
+					//"neighbour" has not been visited. Claim it, so the path to it goes through currentVertex
+					int oldParent = parent.get(neighbour);
+					if( oldParent < base )
+					{
+						if( parent.compareAndSet(neighbour, oldParent, base + currentVertex) )
+						{
+							newVertices.add( neighbour );
+							continue;
+						}
+						oldParent = parent.get(neighbour); //Another thread claimed it first
+					}
+
+					//"neighbour" has already been visited. Use currentVertex while its path is alphabetically
+					//lower, retrying if another thread changed the predecessor in the meantime
+					while( rank[currentVertex] < rank[oldParent - base]
+							&& !parent.compareAndSet(neighbour, oldParent, base + currentVertex) )
+						oldParent = parent.get(neighbour);
+				}
+			}
+		}
+
+		/**
+		 * Bottom-up step for vertex ids from .. to-1: every unvisited vertex looks through its neighbours
+		 * for frontier vertices and takes the one with the alphabetically lowest path as predecessor.
+		 * No other thread handles these vertices, so no atomic update is needed.
+		 * @param newVertices - buffer the visited vertices are added to
+		 */
+		private void searchBottomUp( int from, int to, Chunk newVertices )
+		{
+			for( int vertex = from; vertex < to; vertex++ )
+			{
+				if( depth[vertex] >= base ) //Already visited
+					continue;
+
+				//Every frontier neighbour has to be checked to find the lowest path
+				int best = -1;
+				for( int entry = offsets[vertex]; entry < offsets[vertex+1]; entry++ )
+				{
+					int neighbour = targets[entry];
+					if( depth[neighbour] == base + level && ( best < 0 || rank[neighbour] < rank[best] ) )
+						best = neighbour;
+				}
+				if( best >= 0 )
+				{
+					parent.set(vertex, base + best);
+					newVertices.add( vertex );
+				}
+			}
+		}
+
+		//INNER CLASS
+		private class LevelTask extends RecursiveTask<Chunk>
+		{
+			/**Searches one block of the current level: frontier[ from .. to ) top-down, or vertex ids
+			 * from .. to-1 bottom-up. Large blocks are split in half, and the halves may be stolen by
+			 * other threads of the pool.
+			 */
+
+			private static final long serialVersionUID = 1L;
+
+			private final int from;
+			private final int to;
+			//false if this task runs outside a pool, so it must not fork
+			private final boolean split;
+
+			private LevelTask( int from, int to, boolean split )
+			{
+				this.from = from;
+				this.to = to;
+				this.split = split;
+			}
+
+			/**
+			 * Searches this block
+			 * @return the vertices found in this block as a list of chunks, or null if none were found
+			 */
+			@Override
+			protected Chunk compute()
+			{
+				if( split && to - from > ( bottomUp ? BLOCK_SIZE : FRONTIER_BLOCK_SIZE ) )
+				{
+					int middle = ( from + to ) >>> 1;
+					LevelTask left = new LevelTask(from, middle, true);
+					left.fork();
+					Chunk right = new LevelTask(middle, to, true).compute();
+					return Chunk.link( left.join(), right );
+				}
+
+				Chunk newVertices = new Chunk();
+				if( bottomUp )
+					searchBottomUp(from, to, newVertices);
+				else
+					searchTopDown(from, to, newVertices);
+				return newVertices.size > 0 ? newVertices : null;
+			}
+		}
+	}
+
+	//INNER CLASS
+	static final class BidirectionalState
+	{
+		/**The arrays of one bidirectional search, reused by one query after another. Like Search, each
+		 * query gets a new base larger than any value stored before it and stores values as base + value,
+		 * so values below base mean not visited and the arrays are never cleared between queries.
+		 * DistanceOracle searches with the depth and order arrays too, so they are package-private.
+		 */
+
+		//Distance of every vertex visited from each end, as base + distance
+		final int[] forwardDepth;
+		final int[] backwardDepth;
+		//Vertices visited from each end, in the order they were visited (so level by level)
+		final int[] forwardOrder;
+		final int[] backwardOrder;
+		//base for the forward-visited vertices on some shortest path
+		private final int[] onPath;
+		//stamp of the current query. Every distance it stores is in base .. base+stride-1.
+		int base = 0;
+		private final int stride;
+
+		private BidirectionalState( int vertices )
+		{
+			forwardDepth = new int[vertices];
+			backwardDepth = new int[vertices];
+			forwardOrder = new int[vertices];
+			backwardOrder = new int[vertices];
+			onPath = new int[vertices];
+			stride = Math.max(1, vertices);
+		}
+
+		/**
+		 * Starts a new query, forgetting the previous one
+		 * @modifies base, and the arrays if the stamps run out
+		 */
+		private void start()
+		{
+			if( base > Integer.MAX_VALUE - 2 * stride ) //Out of stamps, clear the arrays and start over
+			{
+				Arrays.fill(forwardDepth, 0);
+				Arrays.fill(backwardDepth, 0);
+				Arrays.fill(onPath, 0);
+				base = 0;
+			}
+			base += stride;
+		}
+	}
+
+	private static final class Chunk
+	{
+		/**A growable buffer of vertex ids found by one task, linked to the chunks of other tasks.
+		 * Only the task that created a chunk adds to it.
+		 */
+
+		private int[] vertices = new int[16];
+		private int size = 0;
+		//next chunk of the list, and last chunk of the list (only kept up to date in the first chunk)
+		private Chunk next = null;
+		private Chunk last = this;
+
+		/**
+		 * Empties this chunk and unlinks it from any other chunks, keeping its buffer
+		 */
+		private void clear()
+		{
+			size = 0;
+			next = null;
+			last = this;
+		}
+
+		/**
+		 * Adds a vertex id to this chunk
+		 */
+		private void add( int vertex )
+		{
+			if( size == vertices.length )
+				vertices = Arrays.copyOf(vertices, size * 2);
+			vertices[size++] = vertex;
+		}
+
+		/**
+		 * Joins two lists of chunks without copying them
+		 * @return a list with the chunks of "first" followed by the chunks of "second"
+		 */
+		private static Chunk link( Chunk first, Chunk second )
+		{
+			if( first == null )
+				return second;
+			if( second != null )
+			{
+				first.last.next = second;
+				first.last = second.last;
+			}
+			return first;
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package mp5;
+
+import java.util.List;
+
+public class ConcurrentGraph {
+
+	/**REP INVARIANT:
+	- graph and published are not null
+	- published is a compiled copy of graph as it was when publish() was last called
+	- version is the number of times publish() has been called
+	*/
+
+	/**Abstraction Function
+	 - graph is the graph being built, with every change made so far.
+	 - published is the version of the graph searches see. Changes are added to it in batches, each
+	 	time publish() is called.
+	 */
+
+	/**Thread Safety Argument:
+	 * 1. Readers never lock. They read "published" once and search that CompactGraph, which is immutable,
+	 * 		so a search sees one whole version of the graph however long it runs, even while writers change it.
+	 * 2. Only writers touch "graph", and every method that does holds the lock of "graph", so writers
+	 * 		run one at a time and never see a half-made change.
+	 * 3. publish() compiles "graph" into a new CompactGraph while holding that lock, then replaces
+	 * 		"published" with one volatile write, which makes the whole new version visible to readers at once.
+	 * 		Old versions stay valid for the searches still using them and are freed when they finish.
+	 */
+
+	//graph the writers change
+	private final SimpleGraph graph;
+	//the version of graph searches are run on
+	private volatile CompactGraph published;
+	//number of versions published, written only while holding the lock of graph
+	private volatile long version = 0;
+
+	/**
+	 * Creates an empty ConcurrentGraph
+	 * @return a ConcurrentGraph with no vertices or edges
+	 */
+	public ConcurrentGraph()
+	{
+		this( new SimpleGraph() );
+	}
+
+	/**
+	 * Creates a ConcurrentGraph that starts as "graph", and publishes it
+	 * @param graph - the starting vertices and edges. It is owned by this ConcurrentGraph, and must not be
+	 * 			used by the caller afterwards.
+	 */
+	public ConcurrentGraph( SimpleGraph graph )
+	{
+		this.graph = graph;
+		this.published = graph.compile();
+	}
+
+	/**
+	 * Adds a vertex, see SimpleGraph.addVertex. Searches see it after the next publish().
+	 * @param vertex - the vertex to add
+	 * @return true if the vertex was added, false if it was already on the graph or null
+	 */
+	public boolean addVertex( String vertex )
+	{
+		synchronized( graph )
+		{
+			return graph.addVertex(vertex);
+		}
+	}
+
+	/**
+	 * Adds an edge, see SimpleGraph.addEdge. Searches see it after the next publish().
+	 * @param vertex1 - first vertex
+	 * @param vertex2 - second vertex
+	 * @param edgeName - label of the edge connecting vertex1 and vertex2
+	 * @return true if the edge was added or already existed, false when either vertex or edgeName is null
+	 * @throws IllegalArgumentException - if vertex1 equals vertex2
+	 */
+	public boolean addEdge( String vertex1, String vertex2, String edgeName )
+	{
+		synchronized( graph )
+		{
+			return graph.addEdge(vertex1, vertex2, edgeName);
+		}
+	}
+
+	/**
+	 * Adds all the vertices and edges of another graph, see SimpleGraph.addGraph. Searches see them after
+	 * the next publish().
+	 * @param other - the graph whose vertices and edges you want to add. It is not modified, and must not
+	 * 			be modified by other threads while this runs.
+	 */
+	public void addGraph( SimpleGraph other )
+	{
+		synchronized( graph )
+		{
+			graph.addGraph(other);
+		}
+	}
+
+	/**
+	 * Makes every change made so far visible to searches started from now on. Searches already running
+	 * keep using the version they started with. Blocks other writers, but not searches, while compiling.
+	 * @return the new version searches will use
+	 */
+	public CompactGraph publish()
+	{
+		synchronized( graph )
+		{
+			CompactGraph compiled = graph.compile(); //Reused if nothing changed since the last version
+			published = compiled;
+			version++;
+			return compiled;
+		}
+	}
+
+	/**
+	 * Returns the latest published version of the graph, without waiting for writers. Searching the
+	 * returned graph always sees the same version, so several queries can be pinned to one version.
+	 * @return an immutable copy of the graph as it was when publish() was last called
+	 */
+	public CompactGraph snapshot()
+	{
+		return published;
+	}
+
+	/**
+	 * Returns the number of versions published
+	 * @return the number of times publish() has been called
+	 */
+	public long version()
+	{
+		return version;
+	}
+
+	/**
+	 * Conducts a breadth first search on the latest published version, see CompactGraph.breadthFirstSearch
+	 * @param startVertex - starting vertex for the path
+	 * @param endVertex - ending vertex for the path
+	 * @param threads - number of threads to use when searching
+	 * @return the list of vertices on the shortest path from "startVertex" to "endVertex"
+	 * @throws NoPathException - if there is no path between the vertices or either is not on the graph
+	 */
+	public List<String> breadthFirstSearch( String startVertex, String endVertex, int threads )
+	{
+		return published.breadthFirstSearch(startVertex, endVertex, threads);
+	}
+
+	/**
+	 * Conducts a bidirectional search on the latest published version, see CompactGraph.bidirectionalSearch
+	 * @param startVertex - starting vertex for the path
+	 * @param endVertex - ending vertex for the path
+	 * @return the list of vertices on the shortest path from "startVertex" to "endVertex"
+	 * @throws NoPathException - if there is no path between the vertices or either is not on the graph
+	 */
+	public List<String> bidirectionalSearch( String startVertex, String endVertex )
+	{
+		return published.bidirectionalSearch(startVertex, endVertex);
+	}
+}
@@ -0,0 +1,322 @@
+package mp5;
+
+import java.util.Arrays;
+
+public final class DistanceOracle {
+
+	/**REP INVARIANT:
+	- component.length == graph.vertexCount(), and 2 vertices have the same component id exactly when
+		there is a path between them
+	- landmarks.length == distances.length <= graph.vertexCount(), with no duplicate landmarks
+	- distances[i][v] is the distance from landmarks[i] to v as an unsigned byte, or UNKNOWN if
+		v is not connected to landmarks[i] or is further than MAX_DISTANCE from it
+	*/
+
+	/**Abstraction Function
+	 - Maps every pair of vertices of graph to whether they are connected, and to bounds on their distance.
+	 	For 2 vertices a and b with known distances to a landmark L, the triangle inequality gives
+	 	| d(a,L) - d(b,L) | <= d(a,b) <= d(a,L) + d(L,b). The bounds of a pair are the tightest of these
+	 	over all landmarks.
+	 */
+
+	//stored for distances that are not known
+	private static final int UNKNOWN = 0xFF;
+	//largest distance stored in a byte
+	private static final int MAX_DISTANCE = 0xFE;
+
+	//graph this indexes
+	private final CompactGraph graph;
+	//id of the connected component of every vertex, numbered from 0 in order of their lowest vertex
+	private final int[] component;
+	//number of connected components
+	private final int componentCount;
+	//ids of the landmark vertices, highest degree first
+	private final int[] landmarks;
+	//distance from each landmark to every vertex, as unsigned bytes
+	private final byte[][] distances;
+
+	/**
+	 * Indexes a graph by its connected components and by the distances from its "landmarks" highest degree
+	 * vertices (hubs) to every vertex. Takes one breadth first search per component and per landmark.
+	 * @param graph - graph to index
+	 * @param landmarks - number of landmarks, >= 0. The graph's vertex count is used if it has fewer vertices.
+	 * @throws IllegalArgumentException - if landmarks < 0
+	 */
+	public DistanceOracle( CompactGraph graph, int landmarks )
+	{
+		if( landmarks < 0 )
+			throw new IllegalArgumentException();
+		this.graph = graph;
+		int vertices = graph.vertexCount();
+		int[] offsets = graph.offsets();
+		int[] targets = graph.targets();
+
+		//Number the components with one search from every vertex not yet reached
+		component = new int[vertices];
+		Arrays.fill(component, -1);
+		int[] queue = new int[vertices];
+		int components = 0;
+		for( int vertex = 0; vertex < vertices; vertex++ )
+		{
+			if( component[vertex] >= 0 )
+				continue;
+			component[vertex] = components;
+			queue[0] = vertex;
+			for( int head = 0, tail = 1; head < tail; head++ )
+			{
+				for( int entry = offsets[queue[head]]; entry < offsets[queue[head]+1]; entry++ )
+				{
+					int neighbour = targets[entry];
+					if( component[neighbour] < 0 )
+					{
+						component[neighbour] = components;
+						queue[tail++] = neighbour;
+					}
+				}
+			}
+			components++;
+		}
+		componentCount = components;
+
+		//Landmarks are the highest degree vertices, lowest id first among equal degrees
+		long[] byDegree = new long[vertices];
+		for( int vertex = 0; vertex < vertices; vertex++ )
+			byDegree[vertex] = (long) ( offsets[vertex] - offsets[vertex+1] ) << 32 | vertex;
+		Arrays.sort(byDegree);
+		this.landmarks = new int[ Math.min(landmarks, vertices) ];
+		this.distances = new byte[ this.landmarks.length ][];
+		for( int landmark = 0; landmark < this.landmarks.length; landmark++ )
+		{
+			this.landmarks[landmark] = (int) byDegree[landmark];
+			distances[landmark] = distancesFrom( this.landmarks[landmark], queue );
+		}
+	}
+
+	/**
+	 * Returns the number of connected components of the graph
+	 * @return the number of sets of vertices that are connected to each other but to no other vertex
+	 */
+	public int componentCount()
+	{
+		return componentCount;
+	}
+
+	/**
+	 * Returns the connected component of a vertex
+	 * @param vertex - a vertex. Enclosing quotations are removed.
+	 * @return the id of the component of "vertex", 0 <= id < componentCount(), or -1 if "vertex" is not on the graph
+	 */
+	public int componentOf( String vertex )
+	{
+		int id = graph.indexOf( vertex.replaceAll("^\"|\"$", "") );
+		return id < 0 ? -1 : component[id];
+	}
+
+	/**
+	 * Checks if there is a path between 2 vertices, in constant time after looking up the vertices
+	 * @param startVertex - a vertex. Enclosing quotations are removed.
+	 * @param endVertex - a vertex. Enclosing quotations are removed.
+	 * @return true if both vertices are on the graph and there is a path between them, false otherwise
+	 */
+	public boolean connected( String startVertex, String endVertex )
+	{
+		int start = graph.indexOf( startVertex.replaceAll("^\"|\"$", "") );
+		int end = graph.indexOf( endVertex.replaceAll("^\"|\"$", "") );
+		return start >= 0 && end >= 0 && component[start] == component[end];
+	}
+
+	/**
+	 * Returns a lower bound on the distance between 2 vertices, from the landmarks alone
+	 * @param startVertex - a vertex. Enclosing quotations are removed.
+	 * @param endVertex - a vertex. Enclosing quotations are removed.
+	 * @return a number <= the number of edges on the shortest path between the vertices, or -1 if they are not connected
+	 */
+	public int lowerBound( String startVertex, String endVertex )
+	{
+		int start = graph.indexOf( startVertex.replaceAll("^\"|\"$", "") );
+		int end = graph.indexOf( endVertex.replaceAll("^\"|\"$", "") );
+		if( start < 0 || end < 0 || component[start] != component[end] )
+			return -1;
+		return lowerBound(start, end);
+	}
+
+	/**
+	 * Returns an upper bound on the distance between 2 vertices, from the landmarks alone
+	 * @param startVertex - a vertex. Enclosing quotations are removed.
+	 * @param endVertex - a vertex. Enclosing quotations are removed.
+	 * @return a number >= the number of edges on the shortest path between the vertices, Integer.MAX_VALUE
+	 * 			if no landmark is connected to them, or -1 if they are not connected
+	 */
+	public int upperBound( String startVertex, String endVertex )
+	{
+		int start = graph.indexOf( startVertex.replaceAll("^\"|\"$", "") );
+		int end = graph.indexOf( endVertex.replaceAll("^\"|\"$", "") );
+		if( start < 0 || end < 0 || component[start] != component[end] )
+			return -1;
+		return upperBound(start, end);
+	}
+
+	/**
+	 * Returns the number of edges on the shortest path between 2 vertices. Unconnected vertices are
+	 * answered in constant time, and so are pairs whose bounds are equal. Other pairs are searched
+	 * breadth first from both vertices, one level at a time from the side with the smaller frontier.
+	 * The search stops as soon as no undiscovered path can be shorter than the best path found, which
+	 * starts as the upper bound, and skips every vertex the lower bounds show is on no path that short.
+	 * @param startVertex - a vertex. Enclosing quotations are removed.
+	 * @param endVertex - a vertex. Enclosing quotations are removed.
+	 * @return the distance between the vertices, or -1 if there is no path between them or either is not on the graph
+	 */
+	public int distance( String startVertex, String endVertex )
+	{
+		int start = graph.indexOf( startVertex.replaceAll("^\"|\"$", "") );
+		int end = graph.indexOf( endVertex.replaceAll("^\"|\"$", "") );
+		if( start < 0 || end < 0 || component[start] != component[end] )
+			return -1;
+		if( start == end )
+			return 0;
+		int best = upperBound(start, end); //Length of the shortest path found so far
+		if( lowerBound(start, end) == best )
+			return best;
+
+		CompactGraph.BidirectionalState state = graph.takeBidirectionalState();
+		try
+		{
+			return search(start, end, best, state);
+		}
+		finally
+		{
+			graph.releaseBidirectionalState(state);
+		}
+	}
+
+	/**
+	 * Searches from both vertices for their distance, see distance. The search uses the graph's pooled
+	 * bidirectional search arrays, whose depths are stamped with the state's base: a depth below base
+	 * was left by an earlier query and means not visited, so nothing is allocated or cleared.
+	 * @param best - length of a path between the vertices
+	 * @modifies state
+	 */
+	private int search( int start, int end, int best, CompactGraph.BidirectionalState state )
+	{
+		int[] offsets = graph.offsets();
+		int[] targets = graph.targets();
+		final int base = state.base;
+		int[] startDepth = state.forwardDepth;
+		int[] endDepth = state.backwardDepth;
+		startDepth[start] = base;
+		endDepth[end] = base;
+		//Each side's queue holds its finished levels, then the current frontier from the level start
+		int[] startQueue = state.forwardOrder;
+		int[] endQueue = state.backwardOrder;
+		startQueue[0] = start;
+		endQueue[0] = end;
+		int startLevel = 0, startTail = 1, startSearched = 0;
+		int endLevel = 0, endTail = 1, endSearched = 0;
+
+		//Any path not found yet has more than startSearched + endSearched edges
+		while( (long) startSearched + endSearched + 1 < best && startLevel < startTail && endLevel < endTail )
+		{
+			boolean fromStart = startTail - startLevel <= endTail - endLevel;
+			int[] queue = fromStart ? startQueue : endQueue;
+			int[] depth = fromStart ? startDepth : endDepth;
+			int[] otherDepth = fromStart ? endDepth : startDepth;
+			int levelStart = fromStart ? startLevel : endLevel;
+			int tail = fromStart ? startTail : endTail;
+			int levelEnd = tail;
+			for( int head = levelStart; head < levelEnd; head++ )
+			{
+				int vertex = queue[head];
+				for( int entry = offsets[vertex]; entry < offsets[vertex+1]; entry++ )
+				{
+					int neighbour = targets[entry];
+					if( depth[neighbour] >= base )
+						continue;
+					depth[neighbour] = depth[vertex] + 1;
+					int distance = depth[neighbour] - base;
+					if( otherDepth[neighbour] >= base )
+						best = Math.min( best, distance + otherDepth[neighbour] - base );
+					//Skip vertices every path through which is longer than the best path
+					else if( distance + ( fromStart ? lowerBound(neighbour, end) : lowerBound(start, neighbour) ) < best )
+						queue[tail++] = neighbour;
+				}
+			}
+			if( fromStart )
+			{
+				startLevel = levelEnd;
+				startTail = tail;
+				startSearched++;
+			}
+			else
+			{
+				endLevel = levelEnd;
+				endTail = tail;
+				endSearched++;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the landmark bound | d(start,L) - d(end,L) | maximized over the landmarks
+	 */
+	private int lowerBound( int start, int end )
+	{
+		int lower = 0;
+		for( byte[] distance : distances )
+		{
+			int fromStart = distance[start] & 0xFF;
+			int fromEnd = distance[end] & 0xFF;
+			if( fromStart != UNKNOWN && fromEnd != UNKNOWN )
+				lower = Math.max( lower, Math.abs(fromStart - fromEnd) );
+		}
+		return lower;
+	}
+
+	/**
+	 * Returns the landmark bound d(start,L) + d(L,end) minimized over the landmarks
+	 */
+	private int upperBound( int start, int end )
+	{
+		int upper = Integer.MAX_VALUE;
+		for( byte[] distance : distances )
+		{
+			int fromStart = distance[start] & 0xFF;
+			int fromEnd = distance[end] & 0xFF;
+			if( fromStart != UNKNOWN && fromEnd != UNKNOWN )
+				upper = Math.min( upper, fromStart + fromEnd );
+		}
+		return upper;
+	}
+
+	/**
+	 * Searches breadth first from "landmark" for the distance to every vertex
+	 * @param queue - buffer of graph.vertexCount() ints to search with
+	 * @return the distances from "landmark" as unsigned bytes, UNKNOWN for vertices not connected or
+	 * 			further than MAX_DISTANCE
+	 */
+	private byte[] distancesFrom( int landmark, int[] queue )
+	{
+		int[] offsets = graph.offsets();
+		int[] targets = graph.targets();
+		byte[] distance = new byte[ graph.vertexCount() ];
+		Arrays.fill( distance, (byte) UNKNOWN );
+		distance[landmark] = 0;
+		queue[0] = landmark;
+		for( int head = 0, tail = 1; head < tail; head++ )
+		{
+			int next = ( distance[queue[head]] & 0xFF ) + 1;
+			if( next > MAX_DISTANCE )
+				break;
+			for( int entry = offsets[queue[head]]; entry < offsets[queue[head]+1]; entry++ )
+			{
+				int neighbour = targets[entry];
+				if( ( distance[neighbour] & 0xFF ) == UNKNOWN )
+				{
+					distance[neighbour] = (byte) next;
+					queue[tail++] = neighbour;
+				}
+			}
+		}
+		return distance;
+	}
+}
@@ -1,13 +1,14 @@
 package mp5;
 
-import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.List;
+import java.util.Iterator;
 import java.util.Set;
 
 public class Edge implements Comparable<Object> {
 
-	private final Set<String> vertexPair;
+	//the 2 vertices of the edge, lowVertex.compareTo(highVertex) < 0 so that equal edges have equal fields
+	private final String lowVertex;
+	private final String highVertex;
 	private final String edgeLabel;
 	/**
 	 * Creates an edge between the pair of vertices and labels it with edgeLabel
@@ -20,7 +21,29 @@ public class Edge implements Comparable<Object> {
 	{
 		if( vertexPair.size() != 2 )
 			throw new IllegalArgumentException();
-		this.vertexPair = vertexPair;
+		Iterator<String> vertices = vertexPair.iterator();
+		String vertex1 = vertices.next();
+		String vertex2 = vertices.next();
+		this.lowVertex = vertex1.compareTo(vertex2) < 0 ? vertex1 : vertex2;
+		this.highVertex = vertex1.compareTo(vertex2) < 0 ? vertex2 : vertex1;
+		this.edgeLabel = edgeLabel;
+	}
+	
+	/**
+	 * Creates an edge between 2 vertices and labels it with edgeLabel
+	 * @param vertex1 - first vertex of the edge
+	 * @param vertex2 - second vertex of the edge
+	 * @param edgeLabel - The name of the edge between the vertices
+	 * @return an edge connecting vertex1 and vertex2
+	 * @throws IllegalArgumentException - If vertex1 equals vertex2
+	 */
+	public Edge( String vertex1, String vertex2, String edgeLabel )
+	{
+		int order = vertex1.compareTo(vertex2);
+		if( order == 0 )
+			throw new IllegalArgumentException();
+		this.lowVertex = order < 0 ? vertex1 : vertex2;
+		this.highVertex = order < 0 ? vertex2 : vertex1;
 		this.edgeLabel = edgeLabel;
 	}
 	
@@ -30,7 +53,10 @@ public class Edge implements Comparable<Object> {
     */
     public Set<Object> getVertices()
     {
-        return new HashSet<Object>( vertexPair );
+        Set<Object> vertices = new HashSet<Object>();
+        vertices.add(lowVertex);
+        vertices.add(highVertex);
+        return vertices;
     }
     
     /**
@@ -50,10 +76,10 @@ public class Edge implements Comparable<Object> {
     */
     public String getPartner( String v1 ) throws IllegalArgumentException
     {
-        //Make copy of vertices so you can safely remove v1 from it
-        List<String> copyVertices = new ArrayList<String>( vertexPair );
-        if( copyVertices.remove(v1) )
-        	return copyVertices.get(0); //V2 the partner vertex is all that's left in list
+        if( lowVertex.equals(v1) )
+        	return highVertex;
+        else if( highVertex.equals(v1) )
+        	return lowVertex;
         else
         	throw new IllegalArgumentException();     
     }
@@ -78,7 +104,7 @@ public class Edge implements Comparable<Object> {
 		}
 	}
 
-	/**Auto-generated hashCode() method **/
+	/**Same hash code as when the vertices were kept in a Set (the sum of their hash codes) **/
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -86,14 +112,14 @@ public class Edge implements Comparable<Object> {
 		result = prime * result
 				+ ((edgeLabel == null) ? 0 : edgeLabel.hashCode());
 		result = prime * result
-				+ ((vertexPair == null) ? 0 : vertexPair.hashCode());
+				+ lowVertex.hashCode() + highVertex.hashCode();
 		return result;
 	}
 
 	/**
-	 * Checks if the specified Edge is equal to this by comparing edgeLabel and vertexPair
+	 * Checks if the specified Edge is equal to this by comparing edgeLabel and the 2 vertices
 	 *@param obj - the Edge you are comparing this to for equality.
-	 *@return true if obj's edgeLabel and vertexPair are equal to the ones in this, false if not, 
+	 *@return true if obj's edgeLabel and vertices are equal to the ones in this, false if not, 
 	 *			 or obj not of type Edge
 	 */
 	@Override
@@ -101,7 +127,7 @@ public class Edge implements Comparable<Object> {
 		if( hashCode() == obj.hashCode() && obj instanceof Edge )
 		{
 		Edge edge2 = (Edge) obj;
-		if( edgeLabel.equals(edge2.edgeLabel) && vertexPair.equals(edge2.vertexPair))
+		if( edgeLabel.equals(edge2.edgeLabel) && lowVertex.equals(edge2.lowVertex) && highVertex.equals(edge2.highVertex))
 			return true;
 		}
 			return false;
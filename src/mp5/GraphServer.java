@@ -0,0 +1,374 @@
+package mp5;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+
+public class GraphServer implements Closeable {
+
+	/** A GraphServer answers path queries from many clients at once over a line protocol on a loopback
+	 * socket, searching one shared CompactGraph. Lines are UTF-8 and end with "\n":
+	 * 	-a request is "<startVertex>\t<endVertex>". Enclosing quotations around the vertices are removed.
+	 * 	-the answer is "PATH\t<vertex>\t<vertex>..." with the vertices of the shortest and alphabetically
+	 * 		lowest path, "NOPATH" if there is no path or either vertex is not on the graph, or
+	 * 		"ERROR\t<message>" for a line that is not a request
+	 * 	-"QUIT" closes the connection
+	 * A client may send several requests without waiting, and they are answered in order.
+	 *
+	 * Every connection is handled by its own thread, which spends nearly all its time waiting for the
+	 * client, so thousands of idle connections are cheap on virtual threads. They are used if the JDK has
+	 * them (Executors.newVirtualThreadPerTaskExecutor, found by reflection so this still runs on older
+	 * JDKs), otherwise a cached pool of platform threads is used. Holding thousands of idle connections
+	 * cheaply is therefore only possible on JDK 21 and later. With platform threads every connection costs
+	 * a whole thread, so by default at most PLATFORM_CONNECTION_LIMIT connections are open at once, and a
+	 * client connecting past the limit is sent "ERROR\tToo many connections" and closed.
+	 * The searches themselves are CPU bound, so the connection threads hand them to a SearchEngine with a
+	 * fixed number of workers and wait for the answer. However many clients are connected, only that many
+	 * searches run at once.
+	 *
+	 * Thread Safety Argument:
+	 * 	1. The graph is immutable and the SearchEngine is thread-safe, so any number of connections can
+	 * 		search at once.
+	 * 	2. A connection's socket, reader and writer are only used by the thread handling it, except that
+	 * 		close() closes the socket to unblock that thread.
+	 * 	3. connections is a concurrent set, and closed is volatile. Connections are only added by the
+	 * 		accept thread, which checks the limit first, so there are never more than maxConnections.
+	 */
+
+	/** Most connections open at once by default when every connection needs a platform thread */
+	public static final int PLATFORM_CONNECTION_LIMIT = 1000;
+
+	//socket clients connect to, bound to the loopback address
+	private final ServerSocket serverSocket;
+	//searches the queries of every connection
+	private final SearchEngine engine;
+	//runs the thread of every connection
+	private final ExecutorService connectionThreads;
+	//true if connectionThreads makes virtual threads
+	private final boolean virtualThreads;
+	//most connections open at once. Connections past it are refused.
+	private final int maxConnections;
+	//sockets of the open connections
+	private final Set<Socket> connections = Collections.newSetFromMap( new ConcurrentHashMap<Socket, Boolean>() );
+	//thread accepting new connections
+	private final Thread acceptThread;
+	private volatile boolean closed = false;
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	//Connections waiting to be accepted before new ones are refused
+	private static final int BACKLOG = 4096;
+	//Shortest and longest pause in milliseconds before accepting again after a failed accept
+	private static final long MIN_ACCEPT_BACKOFF = 10;
+	private static final long MAX_ACCEPT_BACKOFF = 1000;
+
+	/**
+	 * Creates a GraphServer for "graph" listening on a loopback port, with the default connection limit:
+	 * none on virtual threads, PLATFORM_CONNECTION_LIMIT on platform threads. It accepts connections
+	 * once start() is called.
+	 * @param graph - the graph to search
+	 * @param port - port to listen on, or 0 for any free port (see getPort())
+	 * @param searchThreads - number of searches that can run at the same time, > 0
+	 * @throws IOException - if the port can't be opened
+	 */
+	public GraphServer( CompactGraph graph, int port, int searchThreads ) throws IOException
+	{
+		this(graph, port, searchThreads, 0);
+	}
+
+	/**
+	 * Creates a GraphServer for "graph" listening on a loopback port. It accepts connections once start()
+	 * is called.
+	 * @param graph - the graph to search
+	 * @param port - port to listen on, or 0 for any free port (see getPort())
+	 * @param searchThreads - number of searches that can run at the same time, > 0
+	 * @param maxConnections - most connections open at once, or 0 for the default limit (see the
+	 * 			constructor without it)
+	 * @throws IOException - if the port can't be opened
+	 */
+	public GraphServer( CompactGraph graph, int port, int searchThreads, int maxConnections ) throws IOException
+	{
+		serverSocket = new ServerSocket( port, BACKLOG, InetAddress.getLoopbackAddress() );
+		engine = new SearchEngine(graph, searchThreads);
+		ExecutorService virtual = virtualThreadExecutor();
+		virtualThreads = virtual != null;
+		if( maxConnections > 0 )
+			this.maxConnections = maxConnections;
+		else
+			this.maxConnections = virtualThreads ? Integer.MAX_VALUE : PLATFORM_CONNECTION_LIMIT;
+		connectionThreads = virtualThreads ? virtual : Executors.newCachedThreadPool( new ThreadFactory()
+		{
+			public Thread newThread( Runnable task )
+			{
+				Thread thread = new Thread(task, "GraphServer connection");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		acceptThread = new Thread( new Runnable()
+		{
+			public void run()
+			{
+				acceptConnections();
+			}
+		}, "GraphServer accept" );
+		acceptThread.setDaemon(true);
+	}
+
+	/**
+	 * Starts accepting connections in a background thread
+	 * @requires start() has not been called before
+	 */
+	public void start()
+	{
+		acceptThread.start();
+	}
+
+	/**
+	 * Returns the port this server listens on
+	 * @return the local port of the server socket
+	 */
+	public int getPort()
+	{
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Checks how connections are handled
+	 * @return true if every connection gets a virtual thread, false if it gets a platform thread
+	 */
+	public boolean usesVirtualThreads()
+	{
+		return virtualThreads;
+	}
+
+	/**
+	 * Returns the most connections this server holds open at once
+	 * @return the connection limit, Integer.MAX_VALUE if there is none
+	 */
+	public int connectionLimit()
+	{
+		return maxConnections;
+	}
+
+	/**
+	 * Returns the number of clients connected
+	 * @return the number of open connections
+	 */
+	public int connectionCount()
+	{
+		return connections.size();
+	}
+
+	/**
+	 * Stops the server: no more connections are accepted, the open ones are closed, and searches not yet
+	 * started are dropped.
+	 * @throws IOException - if the server socket can't be closed
+	 */
+	public void close() throws IOException
+	{
+		closed = true;
+		serverSocket.close(); //Unblocks the accept thread
+		for( Socket socket : connections )
+			closeQuietly(socket); //Unblocks the connection threads
+		connectionThreads.shutdown();
+		engine.shutdown();
+	}
+
+	/**
+	 * Accepts connections until the server is closed, handing each one to a connection thread, or
+	 * refusing it if maxConnections are already open. A client that resets its connection before it is accepted is skipped. Any other failure (like running out of
+	 * file descriptors) is logged, and accepting is retried after a pause that doubles, up to
+	 * MAX_ACCEPT_BACKOFF, while the failures last.
+	 */
+	private void acceptConnections()
+	{
+		long backoff = 0;
+		while( !closed )
+		{
+			final Socket socket;
+			try
+			{
+				socket = serverSocket.accept();
+				backoff = 0;
+			}
+			catch( IOException e )
+			{
+				if( closed || serverSocket.isClosed() ) //Stopped by close()
+					return;
+				if( isReset(e) ) //Only this connection is lost
+					continue;
+				backoff = Math.min( Math.max( 2 * backoff, MIN_ACCEPT_BACKOFF ), MAX_ACCEPT_BACKOFF );
+				System.out.println( "GraphServer could not accept a connection, retrying in " + backoff + " ms: " + e );
+				try
+				{
+					Thread.sleep(backoff);
+				}
+				catch( InterruptedException interrupted )
+				{
+					return;
+				}
+				continue;
+			}
+			if( connections.size() >= maxConnections )
+			{
+				refuse(socket);
+				continue;
+			}
+			connections.add(socket);
+			try
+			{
+				connectionThreads.execute( new Runnable()
+				{
+					public void run()
+					{
+						serve(socket);
+					}
+				});
+			}
+			catch( RejectedExecutionException e ) //Closed while accepting
+			{
+				connections.remove(socket);
+				closeQuietly(socket);
+			}
+		}
+	}
+
+	/**
+	 * Answers the requests of one connection until the client quits or disconnects
+	 */
+	private void serve( Socket socket )
+	{
+		try
+		{
+			socket.setTcpNoDelay(true);
+			BufferedReader in = new BufferedReader( new InputStreamReader( socket.getInputStream(), UTF_8 ) );
+			Writer out = new BufferedWriter( new OutputStreamWriter( socket.getOutputStream(), UTF_8 ) );
+			String request;
+			while( ( request = in.readLine() ) != null && !request.equals("QUIT") )
+			{
+				out.write( answer(request) );
+				out.write('\n');
+				if( !in.ready() ) //Send the answers once the client has no more requests waiting
+					out.flush();
+			}
+			out.flush();
+		}
+		catch( IOException e ) //Client disconnected, or the server was closed
+		{
+		}
+		catch( InterruptedException e ) //Server was shut down while searching
+		{
+			Thread.currentThread().interrupt();
+		}
+		finally
+		{
+			connections.remove(socket);
+			closeQuietly(socket);
+		}
+	}
+
+	/**
+	 * Searches for the path a request asks for, waiting for a SearchEngine worker to find it
+	 * @param request - a request line
+	 * @return the answer line, without its line end
+	 * @throws InterruptedException - if interrupted while waiting for the search
+	 */
+	private String answer( String request ) throws InterruptedException
+	{
+		int tab = request.indexOf('\t');
+		if( tab < 0 )
+			return "ERROR\tExpected <startVertex>\\t<endVertex>";
+		List<String> path;
+		try
+		{
+			//No NoPathException is made for a missing path, since making one prints to System.out
+			path = engine.searchOrNull( request.substring(0, tab), request.substring(tab + 1) ).get();
+		}
+		catch( ExecutionException e )
+		{
+			return "ERROR\t" + e.getCause();
+		}
+		catch( RejectedExecutionException e ) //Server is being closed
+		{
+			return "ERROR\tServer is closed";
+		}
+		if( path == null )
+			return "NOPATH";
+
+		StringBuilder answer = new StringBuilder("PATH");
+		for( String vertex : path )
+			answer.append('\t').append(vertex);
+		return answer.toString();
+	}
+
+	/**
+	 * Tells a client past the connection limit that it is refused, and closes its connection. The line
+	 * fits in the empty send buffer of the new socket, so this does not wait for the client.
+	 */
+	private static void refuse( Socket socket )
+	{
+		try
+		{
+			socket.getOutputStream().write( "ERROR\tToo many connections\n".getBytes(UTF_8) );
+		}
+		catch( IOException e ) //Client already gone
+		{
+		}
+		closeQuietly(socket);
+	}
+
+	/**
+	 * Checks if an accept failed only because the client reset or aborted its connection first
+	 */
+	private static boolean isReset( IOException e )
+	{
+		String message = e.getMessage() == null ? "" : e.getMessage().toLowerCase();
+		return e instanceof SocketException && ( message.contains("reset") || message.contains("abort") );
+	}
+
+	/**
+	 * Returns an executor that starts a virtual thread for every task, or null if this JDK has none
+	 */
+	private static ExecutorService virtualThreadExecutor()
+	{
+		try
+		{
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		}
+		catch( Exception e ) //Missing before JDK 21, or a preview feature that is not enabled
+		{
+			return null;
+		}
+	}
+
+	private static void closeQuietly( Socket socket )
+	{
+		try
+		{
+			socket.close();
+		}
+		catch( IOException e ) //Nothing more can be done with it
+		{
+		}
+	}
+}
@@ -0,0 +1,215 @@
+package mp5;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+public final class GraphSnapshot {
+/**
+ * This class saves a CompactGraph to a binary snapshot file and loads it back. Loading memory-maps the
+ * file and copies each array in one bulk read, so a warm start decodes the vertex and label names but
+ * does no work per edge.
+ *
+ * Format (big-endian, every section starts at a multiple of 4 bytes):
+ * 	int MAGIC, int VERSION
+ * 	long length and long lastModified of the source file the graph was built from (0 if none)
+ * 	int vertices, int labels, int targets (adjacency entries), int labelEntries
+ * 	int nameBytes, int[vertices + labels + 1] name offsets, byte[nameBytes] names in UTF-8, padding
+ * 	int[vertices + 1] offsets, int[targets] targets, int[targets + 1] labelOffsets, int[labelEntries] labels,
+ * 	int[targets] lowestLabels
+ */
+	/**Instances of this class should not be made **/
+	private GraphSnapshot()
+	{}
+
+	//"MP5G", first 4 bytes of every snapshot
+	private static final int MAGIC = 0x4D503547;
+	//Changes whenever the format changes. Snapshots of another version are not loaded.
+	private static final int VERSION = 2;
+	//Bytes before the first section
+	private static final int HEADER_SIZE = 44;
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/**
+	 * Writes "graph" to a snapshot file, recording the length and modification time of the file it
+	 * was built from so that isCurrent can tell when the snapshot is out of date.
+	 * @param graph - graph to save
+	 * @param snapshot - file to write the snapshot to. It is replaced if it exists.
+	 * @param source - file "graph" was built from, or null if there is none
+	 * @throws IOException - if the snapshot can't be written
+	 */
+	public static void write( CompactGraph graph, String snapshot, String source ) throws IOException
+	{
+		String[] vertexNames = graph.vertexNames();
+		String[] labelNames = graph.labelNames();
+		//Encode all the names into one block of bytes, remembering where each one starts
+		byte[][] encoded = new byte[ vertexNames.length + labelNames.length ][];
+		int[] nameOffsets = new int[ encoded.length + 1 ];
+		for( int name = 0; name < encoded.length; name++ )
+		{
+			String next = name < vertexNames.length ? vertexNames[name] : labelNames[name - vertexNames.length];
+			encoded[name] = next.getBytes(UTF_8);
+			nameOffsets[name+1] = nameOffsets[name] + encoded[name].length;
+		}
+
+		File sourceFile = source == null ? null : new File(source);
+		File temporary = new File( snapshot + ".tmp" );
+		DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream(temporary), 1 << 16 ) );
+		try
+		{
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong( sourceFile == null ? 0 : sourceFile.length() );
+			out.writeLong( sourceFile == null ? 0 : sourceFile.lastModified() );
+			out.writeInt( vertexNames.length );
+			out.writeInt( labelNames.length );
+			out.writeInt( graph.targets().length );
+			out.writeInt( graph.labels().length );
+			out.writeInt( nameOffsets[encoded.length] );
+			writeInts( out, nameOffsets );
+			for( byte[] name : encoded )
+				out.write(name);
+			for( int pad = nameOffsets[encoded.length]; pad % 4 != 0; pad++ )
+				out.writeByte(0);
+			writeInts( out, graph.offsets() );
+			writeInts( out, graph.targets() );
+			writeInts( out, graph.labelOffsets() );
+			writeInts( out, graph.labels() );
+			writeInts( out, graph.lowestLabels() );
+		}
+		finally
+		{
+			out.close();
+		}
+		//Replace the old snapshot only once the new one is complete
+		File target = new File(snapshot);
+		if( !temporary.renameTo(target) && !( target.delete() && temporary.renameTo(target) ) )
+			throw new IOException( "Could not replace " + snapshot );
+	}
+
+	/**
+	 * Loads a graph from a snapshot file
+	 * @param snapshot - file written by write
+	 * @return the graph saved in "snapshot"
+	 * @throws java.io.FileNotFoundException - if "snapshot" does not exist
+	 * @throws IOException - if "snapshot" can't be read, is not a snapshot or has another version
+	 */
+	public static CompactGraph load( String snapshot ) throws IOException
+	{
+		RandomAccessFile file = new RandomAccessFile(snapshot, "r");
+		ByteBuffer buffer;
+		try
+		{
+			FileChannel channel = file.getChannel();
+			buffer = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() ); //Stays valid after close
+		}
+		finally
+		{
+			file.close();
+		}
+
+		try
+		{
+			if( buffer.getInt(0) != MAGIC )
+				throw new IOException( snapshot + " is not a graph snapshot" );
+			if( buffer.getInt(4) != VERSION )
+				throw new IOException( snapshot + " has snapshot version " + buffer.getInt(4) + ", expected " + VERSION );
+			buffer.position(24);
+			int vertices = buffer.getInt();
+			int labelCount = buffer.getInt();
+			int targetCount = buffer.getInt();
+			int labelEntries = buffer.getInt();
+			int nameBytes = buffer.getInt();
+
+			int[] nameOffsets = readInts( buffer, HEADER_SIZE, vertices + labelCount + 1 );
+			int namesStart = HEADER_SIZE + 4 * nameOffsets.length;
+			String[] vertexNames = new String[vertices];
+			String[] labelNames = new String[labelCount];
+			byte[] names = new byte[nameBytes];
+			buffer.position(namesStart);
+			buffer.get(names);
+			for( int name = 0; name < nameOffsets.length - 1; name++ )
+			{
+				String next = new String( names, nameOffsets[name], nameOffsets[name+1] - nameOffsets[name], UTF_8 );
+				if( name < vertices )
+					vertexNames[name] = next;
+				else
+					labelNames[name - vertices] = next;
+			}
+
+			int position = namesStart + ( nameBytes + 3 ) / 4 * 4;
+			int[] offsets = readInts( buffer, position, vertices + 1 );
+			position += 4 * offsets.length;
+			int[] targets = readInts( buffer, position, targetCount );
+			position += 4 * targets.length;
+			int[] labelOffsets = readInts( buffer, position, targetCount + 1 );
+			position += 4 * labelOffsets.length;
+			int[] labels = readInts( buffer, position, labelEntries );
+			position += 4 * labels.length;
+			int[] lowestLabels = readInts( buffer, position, targetCount );
+			return new CompactGraph( vertexNames, labelNames, offsets, targets, labelOffsets, labels, lowestLabels );
+		}
+		catch( RuntimeException e ) //Buffer under- or overflow from a truncated or corrupt file
+		{
+			throw new IOException( snapshot + " is not a valid graph snapshot", e );
+		}
+	}
+
+	/**
+	 * Checks if a snapshot can be loaded and was written from the current contents of "source"
+	 * @param snapshot - snapshot file
+	 * @param source - file the snapshot should have been built from
+	 * @return true if "snapshot" has this version and records the current length and modification
+	 * 			time of "source", false otherwise
+	 */
+	public static boolean isCurrent( String snapshot, String source )
+	{
+		File sourceFile = new File(source);
+		if( !sourceFile.isFile() )
+			return false;
+		try
+		{
+			DataInputStream in = new DataInputStream( new FileInputStream(snapshot) );
+			try
+			{
+				return in.readInt() == MAGIC && in.readInt() == VERSION
+						&& in.readLong() == sourceFile.length() && in.readLong() == sourceFile.lastModified();
+			}
+			finally
+			{
+				in.close();
+			}
+		}
+		catch( IOException e ) //Missing or too short to be a snapshot
+		{
+			return false;
+		}
+	}
+
+	private static void writeInts( DataOutputStream out, int[] values ) throws IOException
+	{
+		for( int value : values )
+			out.writeInt(value);
+	}
+
+	/**
+	 * Copies "length" ints starting at byte "position" of "buffer" in one bulk read
+	 */
+	private static int[] readInts( ByteBuffer buffer, int position, int length )
+	{
+		buffer.position(position);
+		IntBuffer ints = buffer.asIntBuffer();
+		int[] values = new int[length];
+		ints.get(values);
+		return values;
+	}
+}
@@ -7,126 +7,423 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public final class MarvelGenerator {
 /**
  * This class creates a SimpleGraph using a datafile with the same format as
  * the Marvel Dataset labeled_edges.tsv.
  */
+	//Appended to a data file's name to get the name of its snapshot
+	public static final String SNAPSHOT_SUFFIX = ".snapshot";
+	//Number of comic groups generateGraph(data) hands from its reader to its builder at once
+	private static final int BATCH_SIZE = 64;
+	//Most batches waiting to be built before generateGraph(data) stops reading
+	private static final int BATCH_QUEUE_SIZE = 16;
+	//Number of lines generateGraph(data) reads between progress messages
+	private static final int PROGRESS_LINES = 10000;
+	
 	/**Instances of this class should not be made **/
 	private MarvelGenerator()
 	{}
 	
 	/**
-	 * Creates a SimpleGraph using a tab-separated value file of 2 fields (like the Marvel Dataset)
+	 * Creates a SimpleGraph using a tab-separated value file of 2 fields (like the Marvel Dataset).
+	 * A producer thread reads and tokenizes the file, groups consecutive lines of the same comic, and hands
+	 * the groups to this thread in batches through a bounded queue; this thread builds the edges of each
+	 * group. Progress is printed every PROGRESS_LINES lines. Lines without 2 fields are skipped.
 	 * @param data - file with the data you want to create a SimpleGraph from
 	 * @requires data is a tsv file with exactly 2 fields and same format as Marvel Dataset
 	 * @return a SimpleGraph of the data in "data"
 	 * @throws FileNotFoundException
 	 *  
 	 * Thread Safety Arguments:
-	 * 	1. The shared datatype, "tasks" is a thread-safe type accesses to it are atomic.
-	 * 	2. The producer thread and consumer thread do different things with "tasks" that don't
-	 * 		affect each other.
-	 * 	3. Message-passing: A poison pill is placed in "tasks" by the producer when file is read
-	 * 		so consumer knows when to stop so no deadlock occurs.
+	 * 	1. The shared datatype, "batches" is a thread-safe type accesses to it are atomic.
+	 * 	2. The producer thread and consumer thread do different things with "batches" that don't
+	 * 		affect each other. A batch and its groups are never touched by the producer once it is queued.
+	 * 	3. Message-passing: A poison pill is placed in "batches" by the producer when file is read (or
+	 * 		reading fails, after the batch it was filling) so consumer knows when to stop so no deadlock
+	 * 		occurs.
+	 * 	4. "batches" holds at most BATCH_QUEUE_SIZE batches. The producer waits while it is full, so the
+	 * 		memory used stays bounded when the consumer falls behind.
+	 * 	5. The consumer interrupts the producer when it stops, so a producer waiting on a full queue that
+	 * 		will never be taken from again closes the file and ends instead of waiting forever.
 	 */
 	public static SimpleGraph generateGraph( String data ) throws FileNotFoundException
 	{
 		SimpleGraph graph = new SimpleGraph();
-		final String[] POISON_PILL = new String[1];
-		final BlockingQueue<String[]> tasks = new LinkedBlockingQueue<String[]>();
-		String[] nextEntry;
-		String currentComic; 
-		Set<String> characterGroup = new HashSet<String>(); //Characters to create edges between
+		final List<ComicGroup> POISON_PILL = new ArrayList<ComicGroup>();
+		final BlockingQueue< List<ComicGroup> > batches = new ArrayBlockingQueue< List<ComicGroup> >(BATCH_QUEUE_SIZE);
 		final BufferedReader producer = new BufferedReader( new FileReader( new File(data)) );
 		
-		//Producer thread reads and tokenizes data from file into "tasks" queue
-		new Thread() 
+		//Producer thread reads and tokenizes data from file, and places batches of comic groups into "batches"
+		Thread reader = new Thread() 
 		{
 			public void run()
 			{
 				String next;
+				int count = 0;
+				int comics = 0;
+				List<ComicGroup> batch = new ArrayList<ComicGroup>(BATCH_SIZE);
+				ComicGroup group = null; //Comic of the lines being read
 				try 
 				{	
-					int count = 0;
 					while( (next = producer.readLine() ) != null )
 					{
-						System.out.println( "Building Graph: " + ++count + " " + next);
-						String[] nextData = next.split("\\t"); //Split char and comic
-						nextData[0] = nextData[0].replaceAll("^\"|\"$", ""); //Get rid of outter quotations
-						nextData[1] = nextData[1].replaceAll("^\"|\"$", "");
-						tasks.put( nextData ); //Place into task queue for consumer
+						if( ++count % PROGRESS_LINES == 0 )
+							System.out.println( "Building Graph: " + count + " lines read, " + comics + " comics" );
+						if( next.indexOf('\t') < 0 ) //Not a row of 2 fields
+							continue;
+						String[] entry = tokenize(next);
+						if( group == null || !entry[1].equals(group.comic) ) //A new comic starts
+						{
+							if( batch.size() == BATCH_SIZE )
+							{
+								batches.put(batch); //Waits while the queue is full
+								batch = new ArrayList<ComicGroup>(BATCH_SIZE);
+							}
+							group = new ComicGroup(entry[1]);
+							batch.add(group);
+							comics++;
+						}
+						group.characters.add(entry[0]);
 					}
-					tasks.put(POISON_PILL); //End of file, place poison pill to stop consumer 
+					System.out.println( "Building Graph: " + count + " lines read, " + comics + " comics" );
 				}
-				catch(Exception e )
+				catch(InterruptedException e ) //Consumer stopped early, so nothing more is taken from "batches"
+				{
+					batch = null;
+				}
+				catch(Exception e ) //The groups read before the error are still built
 				{
 					System.out.println( "Error building graph: File reading" );
 				}
-				
-			}	
-		}.start();
-		
-		//Consumer runs in this thread. Takes tokens from queue and builds graph
-		try
-		{
-			//Get first task and initialize currentComic or end if empty data
-			nextEntry = tasks.take(); 
-			if( nextEntry != POISON_PILL )
-				currentComic = nextEntry[1];
-			else
-				return graph;
-			
-			do
-			{	//if not the last entry and character from same comic as previous entry
-				if( nextEntry != POISON_PILL && nextEntry[1].equals(currentComic) )
-					characterGroup.add(nextEntry[0]); 
-				else 
-				{	
-					if( characterGroup.size() == 1 ) //Special case: only 1 character in comic
+				finally
+				{
+					try
 					{
-						graph.addVertex( (String) characterGroup.iterator().next() );
-						characterGroup.clear();
+						producer.close();
 					}
-					else
+					catch(IOException e )
 					{
-						//Create edges between all characters in this characterGroup, add to graph
-						Iterator<String> outter = characterGroup.iterator();
-						while( outter.hasNext() ) 
+						System.out.println( "Error building graph: File reading" );
+					}
+					try
+					{
+						if( batch != null )
 						{
-							String currentChar = outter.next();		
-							outter.remove(); //Remove currentChar from characterGroup
-							
-							Iterator<String> inner = characterGroup.iterator(); //one less than outter now
-							while( inner.hasNext() ) //Creates edges between currentChar and others in group
-								graph.addEdge(currentChar, (String) inner.next(), currentComic);	
+							batches.put(batch); //Last batch, cut short if reading failed
+							batches.put(POISON_PILL); //End of file, place poison pill to stop consumer 
 						}
 					}
-					
-					if( nextEntry != POISON_PILL) //If nextEntry isn't the poison pill, start new group
+					catch(InterruptedException e ) //Consumer stopped early
 					{
-						currentComic = nextEntry[1]; //Change currentComic to next comic in data
-						characterGroup.add( nextEntry[0] ); //Add character from next comic to now-empty set 
 					}
-					else
-						break; //Stop processing. We've built the last edges and there's no more tasks	
 				}
-				nextEntry = tasks.take(); //Get next task
+			}	
+		};
+		reader.setDaemon(true); //Never keeps the program alive if the consumer stops early
+		reader.start();
+		
+		//Consumer runs in this thread. Takes batches of comic groups from queue and builds graph
+		try
+		{
+			List<ComicGroup> batch;
+			while( ( batch = batches.take() ) != POISON_PILL )
+			{
+				for( ComicGroup group : batch )
+					buildComicGroup(graph, group.characters, group.comic);
 			}
-			while(  characterGroup.size() !=0 ); //Keep processing till producer ends
-			producer.close(); //Close the producer thread reading from file
 			System.out.println( "\nGraph building complete!\n");
 		}
 		catch(Exception e)
 		{
 			System.out.println( "Error building graph: Processing\n");
 		}
+		finally
+		{
+			reader.interrupt(); //Stops the producer if it is still reading or waiting on a full queue
+		}
+		return graph;
+	}
+	
+	/**
+	 * Creates a SimpleGraph using a tab-separated value file of 2 fields (like the Marvel Dataset), building
+	 * it on several threads. The file is read with TsvFile.map and split into "threads" shards at boundaries
+	 * between comics, each shard is built into its own graph at the same time, and the shard graphs are then
+	 * merged.
+	 * The result is equal to the graph built by generateGraph(data). Lines are not printed while building.
+	 * @param data - file with the data you want to create a SimpleGraph from
+	 * @param threads - number of shards to build at the same time, > 0
+	 * @requires data is a tsv file with exactly 2 fields and same format as Marvel Dataset
+	 * @return a SimpleGraph of the data in "data"
+	 * @throws FileNotFoundException - if "data" can't be read
+	 * 
+	 * Thread Safety Arguments:
+	 * 	1. The rows are read before any shard thread starts and TsvFile is immutable.
+	 * 	2. Each shard thread only builds its own graph, which no other thread can see until it is done.
+	 * 	3. The shard graphs are merged in this thread after all shard threads have finished.
+	 */
+	public static SimpleGraph generateGraph( String data, int threads ) throws FileNotFoundException
+	{
+		final TsvFile rows;
+		try
+		{
+			rows = TsvFile.map(data);
+		}
+		catch(FileNotFoundException e)
+		{
+			throw e;
+		}
+		catch(IOException e)
+		{
+			System.out.println( "Error building graph: File reading" );
+			return new SimpleGraph();
+		}
+		
+		//Shard i is rows[ bounds[i] .. bounds[i+1] ). Move each bound forward until a new comic starts
+		int[] bounds = new int[threads + 1];
+		for( int shard = 1; shard < threads; shard++ )
+		{
+			int bound = Math.max( bounds[shard-1], (int) ( (long) rows.rowCount() * shard / threads ) );
+			while( bound > 0 && bound < rows.rowCount() && rows.sameComic(bound, bound-1) )
+				bound++;
+			bounds[shard] = bound;
+		}
+		bounds[threads] = rows.rowCount();
+		
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<SimpleGraph>> shards = new ArrayList<Future<SimpleGraph>>();
+		for( int shard = 0; shard < threads; shard++ )
+		{
+			final int first = bounds[shard];
+			final int last = bounds[shard+1];
+			shards.add( executor.submit( new Callable<SimpleGraph>()
+			{
+				public SimpleGraph call()
+				{
+					return buildShard(rows, first, last);
+				}
+			}));
+		}
+		
+		SimpleGraph graph = new SimpleGraph();
+		try
+		{
+			graph = shards.get(0).get(); //Merge the other shards into the first
+			for( int shard = 1; shard < threads; shard++ )
+				graph.addGraph( shards.get(shard).get() );
+			System.out.println( "\nGraph building complete!\n");
+		}
+		catch(Exception e)
+		{
+			System.out.println( "Error building graph: Processing\n");
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+		return graph;
+	}
+	
+	/**
+	 * Creates a CompactGraph of a tab-separated value file of 2 fields (like the Marvel Dataset). The graph
+	 * is loaded from the snapshot "data.snapshot" if it was written from the current "data". Otherwise it is
+	 * built with generateGraph(data, threads) on every processor and saved to "data.snapshot" for the next
+	 * time.
+	 * @param data - file with the data you want to create a CompactGraph from
+	 * @requires data is a tsv file with exactly 2 fields and same format as Marvel Dataset
+	 * @return a CompactGraph of the data in "data"
+	 * @throws FileNotFoundException - if "data" can't be read
+	 */
+	public static CompactGraph generateCompactGraph( String data ) throws FileNotFoundException
+	{
+		String snapshot = data + SNAPSHOT_SUFFIX;
+		if( GraphSnapshot.isCurrent(snapshot, data) )
+		{
+			try
+			{
+				return GraphSnapshot.load(snapshot);
+			}
+			catch(IOException e)
+			{
+				System.out.println( "Error loading snapshot: Rebuilding graph" );
+			}
+		}
+
+		CompactGraph graph = generateGraph( data, Runtime.getRuntime().availableProcessors() ).compile();
+		try
+		{
+			GraphSnapshot.write(graph, snapshot, data);
+		}
+		catch(IOException e)
+		{
+			System.out.println( "Error writing snapshot" );
+		}
+		return graph;
+	}
+	
+	/**
+	 * Creates a ComicGraph using a tab-separated value file of 2 fields (like the Marvel Dataset). Only
+	 * the characters of each comic are stored, not an edge for every pair of them, so it is much smaller
+	 * and faster to build than the SimpleGraph of the same file, and finds the same paths.
+	 * @param data - file with the data you want to create a ComicGraph from
+	 * @requires data is a tsv file with exactly 2 fields and same format as Marvel Dataset
+	 * @return a ComicGraph of the data in "data"
+	 * @throws FileNotFoundException - if "data" can't be read
+	 */
+	public static ComicGraph generateComicGraph( String data ) throws FileNotFoundException
+	{
+		try
+		{
+			return new ComicGraph( TsvFile.map(data) );
+		}
+		catch(FileNotFoundException e)
+		{
+			throw e;
+		}
+		catch(IOException e)
+		{
+			System.out.println( "Error building graph: File reading" );
+			throw new FileNotFoundException(data);
+		}
+	}
+	
+	/**
+	 * Adds the rows appended to a data file since a checkpoint to a graph that was already built from the
+	 * rows before it, so that only the new rows are read. Rows are grouped by comic like generateGraph(data)
+	 * does. The graph's connected components and path cache are updated by the edges added, and its
+	 * compiled form is rebuilt at the next search.
+	 * Only complete lines are read. The last comic read may still have rows to come, so the checkpoint
+	 * returned is the start of its first row: the next call reads that comic again with its new rows, which
+	 * adds nothing twice since duplicate edges are not added. Lines are not printed.
+	 * @param graph - graph built from "data" up to "checkpoint", or any graph to add a delta file to
+	 * @param data - file with the data you want to add, in the same format as the Marvel Dataset
+	 * @param checkpoint - byte of "data" to start reading at: 0, or a value returned by the last call for "data"
+	 * @return the checkpoint to pass the next time rows have been appended to "data"
+	 * @throws FileNotFoundException - if "data" can't be read, or is shorter than "checkpoint"
+	 * @modifies graph
+	 */
+	public static long appendToGraph( SimpleGraph graph, String data, long checkpoint ) throws FileNotFoundException
+	{
+		TsvFile rows;
+		try
+		{
+			rows = TsvFile.map(data, checkpoint);
+		}
+		catch(FileNotFoundException e)
+		{
+			throw e;
+		}
+		catch(IOException e)
+		{
+			System.out.println( "Error building graph: File reading" );
+			throw new FileNotFoundException(data);
+		}
+		if( rows.rowCount() == 0 )
+			return rows.endOffset();
+		
+		addRows(graph, rows, 0, rows.rowCount());
+		int lastComic = rows.rowCount() - 1; //First row of the last comic read
+		while( lastComic > 0 && rows.sameComic(lastComic, lastComic-1) )
+			lastComic--;
+		return rows.rowOffset(lastComic);
+	}
+	
+	/**
+	 * Builds the graph of rows[ first .. last ), see addRows
+	 * @return a graph with the characters and edges of the comics in the rows
+	 */
+	private static SimpleGraph buildShard( TsvFile rows, int first, int last )
+	{
+		SimpleGraph graph = new SimpleGraph();
+		addRows(graph, rows, first, last);
 		return graph;
 	}
+	
+	/**
+	 * Adds the comics of rows[ first .. last ) to a graph, grouping consecutive rows of the same comic like the
+	 * consumer of generateGraph(data) does
+	 * @requires rows[first] starts a new comic and rows[last] (if it exists) starts a new comic
+	 * @modifies graph
+	 */
+	private static void addRows( SimpleGraph graph, TsvFile rows, int first, int last )
+	{
+		Set<String> characterGroup = new HashSet<String>(); //Characters to create edges between
+		for( int row = first; row < last; row++ )
+		{
+			if( row > first && !rows.sameComic(row, row-1) ) //A new comic starts
+				buildComicGroup(graph, characterGroup, rows.getComic(row-1));
+			characterGroup.add( rows.getCharacter(row) );
+		}
+		if( last > first )
+			buildComicGroup(graph, characterGroup, rows.getComic(last-1));
+	}
+	
+	/**
+	 * Splits a line of the data file into its character and comic, without enclosing quotations
+	 * @param line - a line of the form "character"<tab>"comic"
+	 * @return { character, comic }
+	 */
+	private static String[] tokenize( String line )
+	{
+		String[] nextData = line.split("\\t"); //Split char and comic
+		nextData[0] = nextData[0].replaceAll("^\"|\"$", ""); //Get rid of outter quotations
+		nextData[1] = nextData[1].replaceAll("^\"|\"$", "");
+		return nextData;
+	}
+	
+	/**
+	 * The characters of the consecutive lines of one comic, read by the producer of generateGraph(data)
+	 */
+	private static final class ComicGroup {
+		private final String comic;
+		private final Set<String> characters = new HashSet<String>();
+		
+		private ComicGroup( String comic )
+		{
+			this.comic = comic;
+		}
+	}
+	
+	/**
+	 * Adds the characters of one comic to the graph, with an edge labelled "comic" between every pair of
+	 * them. A comic with only 1 character just adds that character.
+	 * @param graph - graph to add the characters and edges to
+	 * @param characterGroup - characters of the comic. It is empty afterwards.
+	 * @param comic - the comic "characterGroup" belongs to
+	 * @modifies graph, characterGroup
+	 */
+	private static void buildComicGroup( SimpleGraph graph, Set<String> characterGroup, String comic )
+	{
+		if( characterGroup.size() == 1 ) //Special case: only 1 character in comic
+		{
+			graph.addVertex( (String) characterGroup.iterator().next() );
+			characterGroup.clear();
+		}
+		else
+		{
+			//Create edges between all characters in this characterGroup, add to graph
+			Iterator<String> outter = characterGroup.iterator();
+			while( outter.hasNext() ) 
+			{
+				String currentChar = outter.next();		
+				outter.remove(); //Remove currentChar from characterGroup
+				
+				Iterator<String> inner = characterGroup.iterator(); //one less than outter now
+				while( inner.hasNext() ) //Creates edges between currentChar and others in group
+					graph.addEdge(currentChar, (String) inner.next(), comic);	
+			}
+		}
+	}
 }
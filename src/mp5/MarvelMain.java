@@ -12,7 +12,7 @@ public class MarvelMain {
 	public static void main(String[] args) {
 		
 		try{
-		SimpleGraph marvelGraph = MarvelGenerator.generateGraph("labeled_edges.tsv");
+		CompactGraph marvelGraph = MarvelGenerator.generateCompactGraph("labeled_edges.tsv");
 		
 		//Try a few searches to see if it works: To test your own searches, use MP5.java 
 		marvelGraph.breadthFirstSearch("FROST, CARMILLA", "24-HOUR MAN/EMMANUEL", 1);
@@ -33,6 +33,10 @@ public class MarvelMain {
 		catch(Exception e ) {
 			System.out.println( "Error reading the file" );
 		}
+		finally
+		{
+			CompactGraph.shutdownSearchPools(); //No more searches
+		}
 	}
 
 }
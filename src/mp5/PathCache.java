@@ -0,0 +1,196 @@
+package mp5;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PathCache {
+
+	/**REP INVARIANT:
+	- paths.size() <= capacity
+	- every path in paths is unmodifiable and starts and ends with the vertices of its key, or is NO_PATH
+	- hits and misses are >= 0
+	*/
+
+	/**Abstraction Function
+	 - Each entry of paths maps a query ( start, end ) to the shortest and alphabetically lowest path
+	 	between them on the graph as it was at "version", or to NO_PATH if there was no path.
+	 - paths is kept in order of last use, so its first entry is the least recently used one.
+	 */
+
+	/**Thread Safety Argument:
+	 * Every method that reads or writes paths, version, hits or misses is synchronized on this cache.
+	 * A result is only stored if it was searched on the current version of the graph, so a search that
+	 * finishes after the graph changed can not put an out of date path in the cache.
+	 */
+
+	//stored in place of a path for queries that have no path
+	private static final List<String> NO_PATH = Collections.emptyList();
+
+	//largest number of queries kept
+	private final int capacity;
+	//cached paths, in order of last use
+	private final Map<Query, List<String>> paths;
+	//version of the graph the cached paths were found on
+	private long version;
+	private long hits;
+	private long misses;
+
+	/**
+	 * Creates an empty cache
+	 * @param capacity - largest number of queries the cache keeps before it evicts the least recently used one
+	 * @throws IllegalArgumentException - if capacity <= 0
+	 */
+	public PathCache( int capacity )
+	{
+		if( capacity <= 0 )
+			throw new IllegalArgumentException();
+		this.capacity = capacity;
+		this.paths = new LinkedHashMap<Query, List<String>>( 16, 0.75f, true )
+		{
+			private static final long serialVersionUID = 1L;
+
+			protected boolean removeEldestEntry( Map.Entry<Query, List<String>> eldest )
+			{
+				return size() > PathCache.this.capacity;
+			}
+		};
+	}
+
+	/**
+	 * Looks up the path of a query. A query whose reverse was cached is answered from it when the reverse
+	 * path has at most 3 vertices: a path of 1 edge has nothing to choose, and a path of 2 edges has the
+	 * same alphabetically lowest middle vertex both ways. Longer reversed paths may not be the lowest.
+	 * @param version - version of the graph being searched. The cache is emptied if it holds paths of
+	 * 			an older version.
+	 * @param startVertex - starting vertex of the query, without enclosing quotations
+	 * @param endVertex - ending vertex of the query, without enclosing quotations
+	 * @return an unmodifiable list of the vertices on the path, an empty list if the query is cached as
+	 * 			having no path, or null if the query is not cached
+	 * @modifies this, counting a hit or a miss and marking the query as most recently used
+	 */
+	public synchronized List<String> get( long version, String startVertex, String endVertex )
+	{
+		if( version != this.version )
+		{
+			if( version < this.version ) //Paths of a newer graph don't answer this search
+			{
+				misses++;
+				return null;
+			}
+			paths.clear();
+			this.version = version;
+		}
+
+		List<String> path = paths.get( new Query(startVertex, endVertex) );
+		if( path == null )
+		{
+			List<String> reverse = paths.get( new Query(endVertex, startVertex) );
+			if( reverse != null && reverse.size() <= 3 )
+			{
+				List<String> forward = new ArrayList<String>(reverse);
+				Collections.reverse(forward);
+				path = Collections.unmodifiableList(forward);
+				paths.put( new Query(startVertex, endVertex), path );
+			}
+		}
+		if( path == null )
+			misses++;
+		else
+			hits++;
+		return path;
+	}
+
+	/**
+	 * Stores the path of a query
+	 * @param version - version of the graph the path was searched on. Nothing is stored if it is older
+	 * 			than the paths in the cache.
+	 * @param startVertex - starting vertex of the query, without enclosing quotations
+	 * @param endVertex - ending vertex of the query, without enclosing quotations
+	 * @param path - vertices on the path from startVertex to endVertex, or null if there is no path
+	 * @modifies this, evicting the least recently used query if the cache is full
+	 */
+	public synchronized void put( long version, String startVertex, String endVertex, List<String> path )
+	{
+		if( version < this.version )
+			return;
+		if( version > this.version )
+		{
+			paths.clear();
+			this.version = version;
+		}
+		paths.put( new Query(startVertex, endVertex),
+				path == null ? NO_PATH : Collections.unmodifiableList( new ArrayList<String>(path) ) );
+	}
+
+	/**
+	 * Removes every cached path. The hit and miss counts are kept.
+	 */
+	public synchronized void clear()
+	{
+		paths.clear();
+	}
+
+	/**
+	 * Returns the number of queries cached
+	 */
+	public synchronized int size()
+	{
+		return paths.size();
+	}
+
+	/**
+	 * Returns the largest number of queries this cache keeps
+	 */
+	public int capacity()
+	{
+		return capacity;
+	}
+
+	/**
+	 * Returns the number of lookups answered from the cache
+	 */
+	public synchronized long hits()
+	{
+		return hits;
+	}
+
+	/**
+	 * Returns the number of lookups that were not cached
+	 */
+	public synchronized long misses()
+	{
+		return misses;
+	}
+
+	/**
+	 * A start and end vertex pair used as the key of a cached path
+	 */
+	private static final class Query {
+		private final String startVertex;
+		private final String endVertex;
+
+		Query( String startVertex, String endVertex )
+		{
+			this.startVertex = startVertex;
+			this.endVertex = endVertex;
+		}
+
+		@Override
+		public boolean equals( Object obj )
+		{
+			if( !(obj instanceof Query) )
+				return false;
+			Query other = (Query) obj;
+			return startVertex.equals(other.startVertex) && endVertex.equals(other.endVertex);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return 31 * startVertex.hashCode() + endVertex.hashCode();
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package mp5;
+
+import java.util.List;
+
+/**
+ * Receives the results of CompactGraph.batchSearch, one call for every pair of a start and an end vertex.
+ * The calls are made in the thread that called batchSearch.
+ */
+public interface PathListener {
+
+	/**
+	 * Called with the shortest and alphabetically lowest path between 2 vertices
+	 * @param startVertex - starting vertex of the path
+	 * @param endVertex - ending vertex of the path
+	 * @param distance - number of edges on the path, path.size() - 1
+	 * @param path - the vertices on the path, from startVertex to endVertex
+	 */
+	void pathFound( String startVertex, String endVertex, int distance, List<String> path );
+
+	/**
+	 * Called when there is no path between 2 vertices, or either is not on the graph
+	 * @param startVertex - starting vertex of the query
+	 * @param endVertex - ending vertex of the query
+	 */
+	void noPath( String startVertex, String endVertex );
+}
@@ -0,0 +1,250 @@
+package mp5;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+public class SearchEngine {
+
+	/** A SearchEngine answers many path queries at the same time on one CompactGraph, using a pool of
+	 * worker threads that is created once and reused for every query. Each query is searched by a
+	 * single worker (see CompactGraph.bidirectionalSearch), so the workers answer separate queries in
+	 * parallel instead of sharing one query. Nothing is printed for found paths.
+	 *
+	 * Thread Safety Argument:
+	 * 	1. The graph is immutable, so any number of workers can search it at once.
+	 * 	2. Every query takes search state from the graph's pools that no other query is using, so queries
+	 * 		share nothing but the graph.
+	 * 	3. The pool and the timer are only created in the constructor and shut down in shutdown().
+	 * 	4. A watched search (see the search with a SearchListener), the threads that cancel it and the timer
+	 * 		that times it out only share its CompletableFuture, which is thread-safe. The search reads it
+	 * 		between levels to stop.
+	 */
+
+	//graph all queries are searched on
+	private final CompactGraph graph;
+	//workers the queries run on
+	private final ExecutorService workers;
+	//completes watched searches with a TimeoutException at their deadline
+	private final ScheduledThreadPoolExecutor timer;
+
+	/**
+	 * Creates a SearchEngine that searches "graph" with a pool of "threads" worker threads
+	 * @param graph - the graph to search
+	 * @param threads - number of queries that can be searched at the same time, > 0
+	 * @throws IllegalArgumentException - if threads <= 0
+	 */
+	public SearchEngine( CompactGraph graph, int threads )
+	{
+		this.graph = graph;
+		this.workers = Executors.newFixedThreadPool(threads);
+		this.timer = new ScheduledThreadPoolExecutor( 1, new ThreadFactory()
+		{
+			public Thread newThread( Runnable task )
+			{
+				Thread thread = new Thread(task, "SearchEngine timer");
+				thread.setDaemon(true); //A pending deadline must not keep the program running
+				return thread;
+			}
+		});
+		timer.setRemoveOnCancelPolicy(true); //Searches that finish in time don't leave their deadline queued
+	}
+
+	/**
+	 * Starts a search for the shortest and alphabetically lowest path between 2 vertices. Enclosing
+	 * quotations around the vertices are removed, like in CompactGraph.breadthFirstSearch.
+	 * @param startVertex - starting vertex for the path
+	 * @param endVertex - ending vertex for the path
+	 * @return a future that completes with the list of vertices on the path, or completes exceptionally
+	 * 			with a NoPathException if there is no path between the vertices or either is not on the graph
+	 * @throws java.util.concurrent.RejectedExecutionException - if this engine has been shut down
+	 */
+	public CompletableFuture<List<String>> search( final String startVertex, final String endVertex )
+	{
+		return CompletableFuture.supplyAsync( new Supplier<List<String>>()
+		{
+			public List<String> get()
+			{
+				return findPath(startVertex, endVertex, Integer.MAX_VALUE, null);
+			}
+		}, workers );
+	}
+
+	/**
+	 * Starts a search like search(startVertex, endVertex) that completes with null instead of a
+	 * NoPathException when there is no path, so no exception is made (or printed) for it. GraphServer
+	 * uses this to answer requests without a path.
+	 * @param startVertex - starting vertex for the path
+	 * @param endVertex - ending vertex for the path
+	 * @return a future that completes with the list of vertices on the path, or with null if there is no
+	 * 			path between the vertices or either is not on the graph
+	 * @throws java.util.concurrent.RejectedExecutionException - if this engine has been shut down
+	 */
+	CompletableFuture<List<String>> searchOrNull( final String startVertex, final String endVertex )
+	{
+		return CompletableFuture.supplyAsync( new Supplier<List<String>>()
+		{
+			public List<String> get()
+			{
+				return pathOrNull( unquote(startVertex), unquote(endVertex), Integer.MAX_VALUE, null );
+			}
+		}, workers );
+	}
+
+	/**
+	 * Starts a search for the shortest and alphabetically lowest path between 2 vertices that can be
+	 * watched and stopped while it runs. It is searched level by level like CompactGraph.breadthFirstSearch
+	 * (with one thread), and between levels the search checks if it should stop:
+	 * 	-cancelling the returned future stops it, completing the future with a CancellationException
+	 * 	-once "timeout" has passed since this call, the future completes with a TimeoutException
+	 * 	-paths longer than "maxDepth" edges are not searched, completing the future with a NoPathException
+	 * The future completes at the deadline even if the search is still waiting for a worker or in the
+	 * middle of a level. The search itself only checks the future between levels, so it stops at the
+	 * end of the level it is on.
+	 * @param startVertex - starting vertex for the path
+	 * @param endVertex - ending vertex for the path
+	 * @param maxDepth - largest number of edges on the path, > 0
+	 * @param timeout - longest time to search for, from when this is called
+	 * @param unit - unit of "timeout"
+	 * @param listener - told about every finished level, or null. It can stop the search by cancelling
+	 * 			the returned future. If it throws, the future completes with what it threw.
+	 * @return a future that completes with the list of vertices on the path, or completes exceptionally
+	 * 			as described above
+	 * @throws java.util.concurrent.RejectedExecutionException - if this engine has been shut down
+	 */
+	public CompletableFuture<List<String>> search( final String startVertex, final String endVertex, final int maxDepth,
+			long timeout, TimeUnit unit, final SearchListener listener )
+	{
+		final CompletableFuture<List<String>> result = new CompletableFuture<List<String>>();
+		//Capped so that adding it to the current time can not overflow
+		final long deadline = System.nanoTime() + Math.min( unit.toNanos(timeout), Long.MAX_VALUE / 2 );
+		final Runnable timeOut = new Runnable()
+		{
+			public void run()
+			{
+				result.completeExceptionally( new TimeoutException( "Search from " + startVertex + " to " + endVertex + " timed out" ) );
+			}
+		};
+		final SearchListener stopCheck = new SearchListener()
+		{
+			public void levelSearched( int level, int frontierSize, int visited, long elapsedNanos )
+			{
+				if( listener != null )
+					listener.levelSearched(level, frontierSize, visited, elapsedNanos);
+				if( System.nanoTime() - deadline >= 0 ) //Don't wait for the timer to search another level
+					timeOut.run();
+				if( result.isDone() ) //Cancelled or timed out, so unwind the search
+					throw new CancellationException();
+			}
+		};
+		final ScheduledFuture<?> timedOut = timer.schedule( timeOut, timeout, unit );
+		result.whenComplete( new BiConsumer<List<String>, Throwable>()
+		{
+			public void accept( List<String> path, Throwable failure )
+			{
+				timedOut.cancel(false);
+			}
+		});
+
+		try
+		{
+			workers.execute( new Runnable()
+			{
+				public void run()
+				{
+					try
+					{
+						//The timer may not have gone off yet if the deadline passed just now
+						if( System.nanoTime() - deadline >= 0 )
+							timeOut.run();
+						if( !result.isDone() ) //Not timed out or cancelled while waiting for a worker
+							result.complete( findPath(startVertex, endVertex, maxDepth, stopCheck) );
+					}
+					catch( Throwable e ) //The future is already complete if stopCheck stopped the search
+					{
+						result.completeExceptionally(e);
+						if( e instanceof VirtualMachineError ) //Still let the worker die on these
+							throw (Error) e;
+					}
+				}
+			});
+		}
+		catch( RejectedExecutionException e )
+		{
+			timedOut.cancel(false);
+			throw e;
+		}
+		return result;
+	}
+
+	/**
+	 * Stops accepting new queries. Queries already started are still completed.
+	 */
+	public void shutdown()
+	{
+		workers.shutdown();
+		timer.shutdown(); //Deadlines already scheduled still go off
+	}
+
+	/**
+	 * Searches for the path between 2 vertices in the calling thread
+	 * @param maxDepth - largest number of edges on the path, > 0. Only used with a listener.
+	 * @param listener - null to search with CompactGraph.bidirectionalPath, otherwise searched level by
+	 * 			level with CompactGraph.levelSearch, telling "listener" about every finished level
+	 * @throws NoPathException - if there is no path between the vertices or either is not on the graph
+	 */
+	private List<String> findPath( String startVertex, String endVertex, int maxDepth, SearchListener listener )
+	{
+		startVertex = unquote(startVertex);
+		endVertex = unquote(endVertex);
+		List<String> path = pathOrNull(startVertex, endVertex, maxDepth, listener);
+		if( path == null )
+			throw new NoPathException(startVertex, endVertex);
+		return path;
+	}
+
+	/**
+	 * Searches for the path between 2 vertices in the calling thread, like findPath
+	 * @requires enclosing quotations have been removed from the vertices
+	 * @return the vertices on the path, or null if there is no path or either vertex is not on the graph
+	 */
+	private List<String> pathOrNull( String startVertex, String endVertex, int maxDepth, SearchListener listener )
+	{
+		if( endVertex.equals(startVertex) ) //start and end are same just return startPath
+		{
+			List<String> startPath = new ArrayList<String>();
+			startPath.add(startVertex);
+			return startPath;
+		}
+
+		int start = graph.indexOf(startVertex);
+		int end = graph.indexOf(endVertex);
+		int[] path;
+		if( start < 0 || end < 0 )
+			path = null;
+		else if( listener == null )
+			path = graph.bidirectionalPath(start, end);
+		else
+			path = graph.levelSearch(start, end, 1, maxDepth, listener);
+		return path == null ? null : graph.toNames(path);
+	}
+
+	/**
+	 * Removes enclosing quotations around a vertex
+	 */
+	private static String unquote( String vertex )
+	{
+		return vertex.replaceAll("^\"|\"$", "");
+	}
+}
@@ -0,0 +1,18 @@
+package mp5;
+
+/**
+ * Receives the progress of a breadth first search after every level of vertices it finishes, so that a
+ * long search can be shown or stopped (see SearchEngine.search). The calls are made in the thread
+ * running the search.
+ */
+public interface SearchListener {
+
+	/**
+	 * Called after a level of the search is finished without finding the end vertex
+	 * @param level - distance of the finished level from the start vertex, starting at 1
+	 * @param frontierSize - number of vertices in the finished level
+	 * @param visited - number of vertices visited so far, including the start vertex
+	 * @param elapsedNanos - time since the search started, in nanoseconds
+	 */
+	void levelSearched( int level, int frontierSize, int visited, long elapsedNanos );
+}
@@ -1,20 +1,15 @@
 package mp5;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.Executor;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class SimpleGraph {
 
@@ -22,23 +17,55 @@ public class SimpleGraph {
 	- Cannot contain duplicate vertices or duplicate edges. 
 	- A vertex cannot have an edge with itself
 	- Vertices and edges cannot be null
-	- Each vertex must have an edge in edgeMap (Map< Set{n1, n2}, Edge ) with each of its
-		neighbouring vertices in adjacencyList ( Map< String, Set{neighbours}  )>
+	- vertexIds and vertexNames hold exactly the vertices in adjacencyList, and
+		vertexNames.get( vertexIds.get(v) ) == v
+	- Each vertex must have an entry in edgeMap (Map< pairKey{n1, n2}, labels[] ) with each of its
+		neighbouring vertices in adjacencyList ( Map< String, Set{neighbours}  )>, and edgeMap has no other entries
+	- Every labels[] in edgeMap is non-empty and sorted alphabetically with no duplicates, and every
+		label in it is the instance kept in internedLabels
+	- componentParent and componentSizes have room for every vertex id. Following componentParent from
+		any vertex id ends at a root, whose componentParent is itself, and 2 vertices have the same root
+		exactly when there is a path between them. componentSizes of a root is the number of vertices
+		with that root, and componentCount is the number of roots.
 	*/
 	
 	/**Abstraction Function
 	 - Strings in adjacencyList ( Map< String, Set{neighbours} ) map to all vertices and
 	 	Set{neighbours} maps to the neighbouring vertices of a given vertex
-	 -  "Edge" objects which contain a set of Strings which are edge labels for edges between vertices,
-	 	are mapped to edges between vertices on the graph. These "edges" are found in 
-	 	key-value pairs in edgeMap 
+	 -  Each label in edgeMap.get( pairKey(n1, n2) ) maps to an edge with that label between the
+	 	vertices n1 and n2 on the graph. "Edge" objects for these edges are only made by getEdges.
 	 	Together these data structures make up the SimpleGraph ADT  
+	 - componentParent is a union-find forest of vertex ids: each tree is one connected component of the graph
 	 */
 	
 	//adjacency list mapping all vertices to their neighbours
 	private final Map< String, Set<String> > adjacencyList = new HashMap< String, Set<String> >();
-	//maps a vertex pair to all the edges connecting them 
-	private final Map< Set<String>, Set<Edge> > edgeMap = new HashMap< Set<String>, Set<Edge> >();
+	//id of every vertex, given in the order the vertices are added. Used to make the keys of edgeMap
+	private final Map< String, Integer > vertexIds = new HashMap< String, Integer >();
+	//every vertex, indexed by its id
+	private final List<String> vertexNames = new ArrayList<String>();
+	//maps a vertex pair (see pairKey) to the labels of all the edges connecting them, sorted alphabetically
+	private final Map< Long, String[] > edgeMap = new HashMap< Long, String[] >();
+	//one instance of every edge label, so that all the edges with the same label share it
+	private final Map< String, String > internedLabels = new HashMap< String, String >();
+	//compiled form of this graph used for searching, null if the graph changed since it was built
+	private volatile CompactGraph compiled;
+	//number of times this graph has been modified, so paths cached before a change are not used after it
+	private volatile long version;
+	//paths found by breadthFirstSearch and bidirectionalSearch on the current version of this graph
+	private final PathCache pathCache = new PathCache(PATH_CACHE_SIZE);
+	
+	//union-find parent of every vertex id, updated as edges are added. Roots are their own parent.
+	private int[] componentParent = new int[16];
+	//number of vertices in the component of every root id
+	private int[] componentSizes = new int[16];
+	//number of connected components
+	private int componentCount = 0;
+	
+	//number of queries kept in pathCache
+	private static final int PATH_CACHE_SIZE = 4096;
+	//odd multiplier (golden ratio) that spreads the lower id of a pairKey over the bits of the higher one
+	private static final int PAIR_MIX = 0x9E3779B9;
 	
 	/**
 	 * Creates an empty SimpleGraph
@@ -70,6 +97,18 @@ public class SimpleGraph {
 		else 
 		{
 			adjacencyList.put(vertex, new HashSet<String>());
+			int id = vertexNames.size();
+			vertexIds.put(vertex, id);
+			vertexNames.add(vertex);
+			if( id == componentParent.length )
+			{
+				componentParent = Arrays.copyOf(componentParent, id * 2);
+				componentSizes = Arrays.copyOf(componentSizes, id * 2);
+			}
+			componentParent[id] = id; //A new vertex is a component of its own
+			componentSizes[id] = 1;
+			componentCount++;
+			graphChanged();
 			return true;
 		}
 	}
@@ -82,135 +121,417 @@ public class SimpleGraph {
 	 * @param String vertex2 - second vertex
 	 * @param String edgeName - label of the edge connecting vertex1 and vertex2
 	 * @return true if edge successfully added or already exists, false when either vertex or edgeName is null
+	 * @throws IllegalArgumentException - if vertex1 equals vertex2
 	 */
 	public boolean addEdge( String vertex1, String vertex2, String edgeName )
 	{
-		Set<String> newNeighboursSet; 
-		Set<Edge> newEdgesSet;
-
 		if (vertex1 == null || vertex2 == null || edgeName == null) 
 			return false;
+		else if( vertex1.equals(vertex2) ) //A vertex cannot have an edge with itself
+			throw new IllegalArgumentException();
 		else
 		{
-			//Create the new edge
-			Set<String> vertexPair = new HashSet<String>();
-			vertexPair.add(vertex1);
-			vertexPair.add(vertex2);
-			Edge newEdge = new Edge( vertexPair, edgeName );
-			
-			for( String vertex : vertexPair ) //Update adjacencyList  for both vertices
+			addVertex(vertex1); //Does nothing if the vertex is already on the graph
+			addVertex(vertex2);
+			adjacencyList.get(vertex1).add(vertex2); //Update adjacencyList for both vertices
+			adjacencyList.get(vertex2).add(vertex1);
+			addLabel( pairKey( vertexIds.get(vertex1), vertexIds.get(vertex2) ), edgeName );
+			unionComponents( vertexIds.get(vertex1), vertexIds.get(vertex2) );
+			graphChanged();
+			return true;
+		}
+	}
+	
+	/**
+	 * Adds all the vertices and edges of another graph to this graph. Duplicates will not be added.
+	 * @param graph - the graph whose vertices and edges you want to add. It is not modified.
+	 * @modifies this by adding the vertices and edges of "graph" that are not already in this
+	 */
+	public void addGraph( SimpleGraph graph )
+	{
+		for( Map.Entry< String, Set<String> > vertex : graph.adjacencyList.entrySet() )
+		{
+			addVertex(vertex.getKey()); //Does nothing if the vertex is already on the graph
+			adjacencyList.get(vertex.getKey()).addAll(vertex.getValue());
+		}
+		
+		for( Map.Entry< Long, String[] > pair : graph.edgeMap.entrySet() )
+		{
+			//The vertices have other ids in "graph", so make the key of the pair in this graph
+			long key = pairKey( vertexIds.get( graph.vertexNames.get( lowId(pair.getKey()) ) ),
+					vertexIds.get( graph.vertexNames.get( highId(pair.getKey()) ) ) );
+			for( String label : pair.getValue() )
+				addLabel(key, label);
+		}
+		
+		//Vertices with the same root in "graph" are connected, so join each vertex to its root there
+		for( int otherId = 0; otherId < graph.vertexNames.size(); otherId++ )
+			unionComponents( vertexIds.get( graph.vertexNames.get(otherId) ),
+					vertexIds.get( graph.vertexNames.get( graph.findComponent(otherId) ) ) );
+		graphChanged();
+	}
+	
+	/**
+	 * Throws away the compiled graph and the cached paths, which no longer match this graph
+	 * @modifies compiled, version
+	 */
+	private void graphChanged()
+	{
+		compiled = null;
+		version++;
+	}
+	
+	/**
+	 * Returns the root of the component of a vertex id. This only reads componentParent, so looking up
+	 * a component never changes the graph. Union by size keeps every tree at most log2(vertices) high.
+	 * @param id - id of a vertex
+	 * @return the id of the root of the component of "id"
+	 */
+	private int findComponent( int id )
+	{
+		while( componentParent[id] != id )
+			id = componentParent[id];
+		return id;
+	}
+	
+	/**
+	 * Returns the root of the component of a vertex id like findComponent, halving the path to it on the
+	 * way so that later lookups are shorter. Only used while the graph is being changed.
+	 * @param id - id of a vertex
+	 * @return the id of the root of the component of "id"
+	 * @modifies componentParent
+	 */
+	private int compressComponent( int id )
+	{
+		while( componentParent[id] != id )
+		{
+			componentParent[id] = componentParent[ componentParent[id] ];
+			id = componentParent[id];
+		}
+		return id;
+	}
+	
+	/**
+	 * Joins the components of 2 vertex ids, if they are not already the same, putting the smaller
+	 * component under the root of the larger one
+	 * @modifies componentParent, componentSizes, componentCount
+	 */
+	private void unionComponents( int id1, int id2 )
+	{
+		int root1 = compressComponent(id1);
+		int root2 = compressComponent(id2);
+		if( root1 == root2 )
+			return;
+		if( componentSizes[root1] < componentSizes[root2] )
+		{
+			int swap = root1;
+			root1 = root2;
+			root2 = swap;
+		}
+		componentParent[root2] = root1;
+		componentSizes[root1] += componentSizes[root2];
+		componentCount--;
+	}
+	
+	/**
+	 * Adds "label" to the labels of the edges of a vertex pair if it is not already there, keeping them sorted
+	 * @param key - pairKey of the vertex pair
+	 * @param label - label of the new edge
+	 * @modifies edgeMap, internedLabels
+	 */
+	private void addLabel( long key, String label )
+	{
+		String interned = internedLabels.get(label);
+		if( interned == null )
+			internedLabels.put(label, label);
+		else
+			label = interned;
+		
+		String[] labels = edgeMap.get(key);
+		if( labels == null ) //this vertex pair has no existing edges
+			edgeMap.put(key, new String[] { label });
+		else
+		{
+			int index = Arrays.binarySearch(labels, label);
+			if( index < 0 ) //Not a duplicate, insert it in order
 			{
-				newNeighboursSet = adjacencyList.get(vertex);
-				if( newNeighboursSet != null ) //Check if vertex exists on the graph
-				{
-					newNeighboursSet.add(newEdge.getPartner(vertex)); //Add vertex2 to vertex1's set of neighbours
-				}
-				else //vertex does not exist on graph. Add it to the graph 
-				{
-					newNeighboursSet = new HashSet<String>();
-					newNeighboursSet.add( newEdge.getPartner(vertex) );
-				}
-				adjacencyList.put(vertex, newNeighboursSet); //update adjacencyList for current "vertex"
+				index = -index - 1;
+				String[] added = new String[labels.length + 1];
+				System.arraycopy(labels, 0, added, 0, index);
+				added[index] = label;
+				System.arraycopy(labels, index, added, index + 1, labels.length - index);
+				edgeMap.put(key, added);
 			}
-			
-			//Add newEdge to set of edges for vertexPair on edgeMap if it exists
-			newEdgesSet = edgeMap.get(vertexPair);
-			if( newEdgesSet != null )
-				newEdgesSet.add(newEdge);
-			else //this vertex pair has no existing edges. Make new set of edges and add newEdge
-			{
-				newEdgesSet = new HashSet<Edge>();
-				newEdgesSet.add(newEdge);
-			}	
-			edgeMap.put(vertexPair, newEdgesSet); //Update edgeMap
-			return true;
 		}
 	}
 	
+	/**
+	 * Returns the key of a vertex pair in edgeMap: both ids packed in a long, the lower id first, so that
+	 * the key is the same in either order. The higher id is mixed with the lower one, because Long.hashCode
+	 * (the 2 halves xored) of the plain ids would put every pair with the same xor in one bucket.
+	 * @param id1 - id of a vertex
+	 * @param id2 - id of another vertex
+	 */
+	private static long pairKey( int id1, int id2 )
+	{
+		int low = Math.min(id1, id2);
+		int high = Math.max(id1, id2);
+		return (long) low << 32 | ( ( high ^ low * PAIR_MIX ) & 0xFFFFFFFFL );
+	}
+	
+	/**
+	 * Returns the lower vertex id of a pairKey
+	 */
+	private static int lowId( long key )
+	{
+		return (int) (key >>> 32);
+	}
+	
+	/**
+	 * Returns the higher vertex id of a pairKey
+	 */
+	private static int highId( long key )
+	{
+		return (int) key ^ lowId(key) * PAIR_MIX;
+	}
+	
+	/**
+	 * Returns the sorted labels of the edges between 2 vertices
+	 * @return the labels, or null if either vertex is not on the graph or they are not connected
+	 */
+	private String[] labelsOf( String vertex1, String vertex2 )
+	{
+		Integer id1 = vertexIds.get(vertex1);
+		Integer id2 = vertexIds.get(vertex2);
+		if( id1 == null || id2 == null )
+			return null;
+		return edgeMap.get( pairKey(id1, id2) );
+	}
+	
 	/**
 	 * Conducts a breadth first search for the shortest and alphabetically lowest path between 2 vertices, 
-	 * using one or more threads to conduct the search
+	 * using one or more threads to conduct the search. The search runs on the compiled form of this graph
+	 * (see compile()), which is rebuilt the first time a search is made after the graph is modified.
+	 * Paths are cached (see getPathCache()), so repeating a query prints its result again without searching.
+	 * Vertices in different connected components fail at once, without searching (see isConnected()).
 	 * @param startVertex - starting vertex for the path
 	 * @param endVertex - ending vertex for the path
 	 * @param threads - number of threads to use when searching
 	 * @return the list of vertices on the shortest path from "startVertex" to "endVertex"
-	 * @throws IllegalArgumentException - if startVertex is not on the graph
-	 * 
-	 * Thread Safety Argument:
-	 * 1. completePaths, tempPaths, currentVertices, and nextVertices are thread-safe data types:
-	 * 	- All "search threads" will remove vertices from currentVertices and add vertices
-	 * 	 	to nextVertices. The methods for these operations are atomic. 
-	 * 2. Since all threads can only work on the same "level" of vertices from startVertex
-	 * 		there is no possibility of a thread finding endVertex first on a further level and
-	 * 		causing a longer path to be returned
-	 * 3. The BFS method will check all potential pathways to a neighbour vertex from a particular
-	 * 		level of vertices for alphabetical ordering, so that at the end of each "search round"
-	 * 		(a round is the current "depth" or "level" of the vertices in currentVertices) tempPaths
-	 * 		will contain the alphabetically lowest path for all new neighbours visited regardless
-	 * 		of the order that neighbouring vertices are visited by each thread.
-	 * 4. Within Searcher's call() method:
-	 * 		- Checking if empty and polling is done together atomically in queues
-	 * 		- All accesses to a "neighbour" vertex and its current path is synchronized and made atomic
+	 * @throws NoPathException - if there is no path between the vertices or either is not on the graph
 	 */
 	public List<String> breadthFirstSearch( String startVertex, String endVertex, int threads )
 	{
-		//Maps each visited vertex to shortest path to get to it from startVertex. These paths are optimized
-		Map<String, List<String>> completePaths = new ConcurrentHashMap<String, List<String>>();
-		//Temporary path map for the threads to work on. Final results are transferred to pathMap at end of each level of search.
-		Map<String, List<String>> tempPaths = new ConcurrentHashMap<String, List<String>>();
-		
-		startVertex = startVertex.replaceAll("^\"|\"$", ""); //Remove enclosing quotations
-		endVertex = endVertex.replaceAll("^\"|\"$", "");
-		
-		//add startVertex to completePaths 
-		ArrayList<String> startPath = new ArrayList<String>();
-		startPath.add(startVertex);
-		completePaths.put(startVertex, startPath);
+		return cachedSearch(startVertex, endVertex, threads, false);
+	}
+	
+	/**
+	 * Conducts a bidirectional breadth first search for the shortest and alphabetically lowest path between
+	 * 2 vertices, growing the search from both ends until they meet. See CompactGraph.bidirectionalSearch.
+	 * It finds the same paths as breadthFirstSearch, so both share the same cached paths.
+	 * @param startVertex - starting vertex for the path
+	 * @param endVertex - ending vertex for the path
+	 * @return the list of vertices on the shortest path from "startVertex" to "endVertex"
+	 * @throws NoPathException - if there is no path between the vertices or either is not on the graph
+	 */
+	public List<String> bidirectionalSearch( String startVertex, String endVertex )
+	{
+		return cachedSearch(startVertex, endVertex, 1, true);
+	}
+	
+	/**
+	 * Searches once from a vertex for the paths to every vertex it is connected to, so that many paths
+	 * from the same vertex can be looked up without searching again. See CompactGraph.bfsTree.
+	 * @param startVertex - starting vertex of all the paths
+	 * @param threads - number of threads to use when searching
+	 * @return the tree of paths from "startVertex", which does not change if this graph is later modified
+	 * @throws IllegalArgumentException - if "startVertex" is not on the graph
+	 */
+	public BfsTree bfsTree( String startVertex, int threads )
+	{
+		return compile().bfsTree(startVertex, threads);
+	}
+	
+	/**
+	 * Checks if there is a path between 2 vertices, in constant time (amortized) without searching
+	 * @param vertex1 - a vertex
+	 * @param vertex2 - a vertex
+	 * @return true if both vertices are on the graph and in the same connected component, false otherwise
+	 */
+	public boolean isConnected( String vertex1, String vertex2 )
+	{
+		Integer id1 = vertexIds.get(vertex1);
+		Integer id2 = vertexIds.get(vertex2);
+		return id1 != null && id2 != null && findComponent(id1) == findComponent(id2);
+	}
+	
+	/**
+	 * Returns the number of connected components of the graph
+	 * @return the number of sets of vertices that are connected to each other but to no other vertex
+	 */
+	public int componentCount()
+	{
+		return componentCount;
+	}
+	
+	/**
+	 * Returns the size of the connected component of a vertex
+	 * @param vertex - a vertex
+	 * @return the number of vertices "vertex" is connected to, including itself, or 0 if it is not on the graph
+	 */
+	public int componentSize( String vertex )
+	{
+		Integer id = vertexIds.get(vertex);
+		return id == null ? 0 : componentSizes[ findComponent(id) ];
+	}
+	
+	/**
+	 * Returns the sizes of all the connected components of the graph
+	 * @return the number of vertices in each component, largest first
+	 */
+	public List<Integer> componentSizes()
+	{
+		List<Integer> sizes = new ArrayList<Integer>(componentCount);
+		for( int id = 0; id < vertexNames.size(); id++ )
+			if( componentParent[id] == id )
+				sizes.add( componentSizes[id] );
+		Collections.sort( sizes, Collections.reverseOrder() );
+		return sizes;
+	}
+	
+	/**
+	 * Returns the cache of paths found by breadthFirstSearch and bidirectionalSearch, with its hit and miss
+	 * counts. It is emptied the first time it is used after this graph is modified.
+	 * @return the path cache of this graph
+	 */
+	public PathCache getPathCache()
+	{
+		return pathCache;
+	}
+	
+	/**
+	 * Answers a query from pathCache, or searches the compiled graph and caches the result
+	 * @param bidirectional - true to search with bidirectionalSearch, false with breadthFirstSearch
+	 * @throws NoPathException - if there is no path between the vertices or either is not on the graph
+	 */
+	private List<String> cachedSearch( String startVertex, String endVertex, int threads, boolean bidirectional )
+	{
+		String start = startVertex.replaceAll("^\"|\"$", ""); //Remove enclosing quotations
+		String end = endVertex.replaceAll("^\"|\"$", "");
+		long searchedVersion = version; //Read before compile(), so a change after it is never cached as current
+		if( start.equals(end) || !adjacencyList.containsKey(start) || !adjacencyList.containsKey(end) )
+			return bidirectional ? compile().bidirectionalSearch(start, end) : compile().breadthFirstSearch(start, end, threads);
+		if( !isConnected(start, end) ) //Different components, so there is nothing to search
+			throw new NoPathException(start, end);
 		
-		if( endVertex.equals(startVertex) ) //start and end are same just return startPath
+		List<String> path = pathCache.get(searchedVersion, start, end);
+		if( path != null ) //Print the result like a search would
 		{
-			System.out.println( "Path from " + startVertex + " to " + endVertex + " is " + startVertex + "\n");
-			return startPath; 
+			if( path.isEmpty() )
+				throw new NoPathException(start, end);
+			System.out.println( pathToString(path) );
+			return new ArrayList<String>(path);
 		}
 		
-		//Create the Search Task. Will be run by all threads sharing the same parameters
-		Search searchTask = new Search(completePaths, tempPaths, startVertex );
-		List<Callable<Void> > taskList = new ArrayList<Callable<Void> >();
-		for( int index = 0; index < threads; index++ ) //Add Search Task "threads" times to taskList
+		try
+		{
+			path = bidirectional ? compile().bidirectionalSearch(start, end) : compile().breadthFirstSearch(start, end, threads);
+		}
+		catch( NoPathException e )
+		{
+			pathCache.put(searchedVersion, start, end, null);
+			throw e;
+		}
+		pathCache.put(searchedVersion, start, end, path);
+		return path;
+	}
+	
+	/**
+	 * Finds the shortest and alphabetically lowest path between every start vertex and every end vertex,
+	 * sharing the work of the searches. See CompactGraph.batchSearch.
+	 * @param startVertices - starting vertices of the paths
+	 * @param endVertices - ending vertices of the paths
+	 * @param listener - receives the result for every pair of a start and an end vertex
+	 */
+	public void batchSearch( List<String> startVertices, List<String> endVertices, PathListener listener )
+	{
+		compile().batchSearch(startVertices, endVertices, listener);
+	}
+	
+	/**
+	 * Returns a frozen, compressed copy of this graph that searches can be run on. The copy is cached
+	 * and reused until this graph is next modified.
+	 * @return a CompactGraph with the same vertices, neighbours and edge labels as this
+	 */
+	public CompactGraph compile()
+	{
+		CompactGraph graph = compiled;
+		if( graph == null )
 		{
-			taskList.add(searchTask);
+			graph = buildCompactGraph();
+			compiled = graph;
 		}
+		return graph;
+	}
 	
-		final ExecutorService executor = Executors.newFixedThreadPool(threads); //pool of "threads" size
+	/**
+	 * Builds the compressed sparse row form of this graph. Vertex and label ids are assigned in
+	 * alphabetical order so that comparing ids compares names.
+	 */
+	private CompactGraph buildCompactGraph()
+	{
+		String[] vertexNames = adjacencyList.keySet().toArray(new String[0]);
+		Arrays.sort(vertexNames);
+		String[] labelNames = internedLabels.keySet().toArray(new String[0]);
+		Arrays.sort(labelNames);
 		
-		do
+		//Translate between the ids of this graph and the alphabetical ids without comparing names
+		int[] sortedIds = new int[vertexNames.length];
+		int[] ownIds = new int[vertexNames.length];
+		for( int vertex = 0; vertex < vertexNames.length; vertex++ )
 		{
-			//Execute the search task using the specified number of threads. 
-			try
-			{
-			executor.invokeAll(taskList); //This thread is blocked till all search threads are done
-			}
-			catch(Exception e)
-			{
-				System.out.println( "Error when invoking search tasks\n");
-			}
+			ownIds[vertex] = vertexIds.get(vertexNames[vertex]);
+			sortedIds[ ownIds[vertex] ] = vertex;
+		}
+		//Every label in edgeMap is the instance in internedLabels, so labels can be looked up by identity
+		Map<String, Integer> labelIdOf = new IdentityHashMap<String, Integer>(labelNames.length);
+		for( int label = 0; label < labelNames.length; label++ )
+			labelIdOf.put( internedLabels.get(labelNames[label]), label );
+		
+		int entries = 0;
+		for( Set<String> neighbours : adjacencyList.values() )
+			entries += neighbours.size();
+		int labelEntries = 0;
+		for( String[] labels : edgeMap.values() )
+			labelEntries += 2 * labels.length; //Once from each vertex of the pair
+		
+		int[] offsets = new int[vertexNames.length + 1];
+		int[] targets = new int[entries];
+		int[] labelOffsets = new int[entries + 1];
+		int[] labelIds = new int[labelEntries];
+		int[] lowestLabelIds = new int[entries];
+		
+		int entry = 0, labelEntry = 0;
+		for( int vertex = 0; vertex < vertexNames.length; vertex++ )
+		{
+			offsets[vertex] = entry;
+			for( String neighbour : adjacencyList.get(vertexNames[vertex]) )
+				targets[entry++] = sortedIds[ vertexIds.get(neighbour) ];
+			Arrays.sort(targets, offsets[vertex], entry);
 			
-			List<String> finalPath = tempPaths.get(endVertex);
-			if( finalPath != null ) //Optimal path to endVertex found
-			{
-				executor.shutdown(); //shut down the executor
-				System.out.println( pathToString(finalPath));
-				return finalPath;
-			}
-			else
+			for( int row = offsets[vertex]; row < entry; row++ ) //Label every entry of the row
 			{
-				completePaths.putAll(tempPaths); //Add finished paths to pathMap
-				tempPaths.clear(); //Clear tempMap for next round of searching
+				labelOffsets[row] = labelEntry;
+				//Labels are sorted, so their ids are too and the first is the lowest
+				for( String label : edgeMap.get( pairKey( ownIds[vertex], ownIds[targets[row]] ) ) )
+					labelIds[labelEntry++] = labelIdOf.get(label);
+				lowestLabelIds[row] = labelIds[ labelOffsets[row] ];
 			}
 		}
-		while( searchTask.updateSearch() ); //Updates search task and continues if there is more work to be done.
-		executor.shutdown(); //shut down the executor
-		throw new NoPathException(startVertex, endVertex ); //No path between the vertices found
+		offsets[vertexNames.length] = entry;
+		labelOffsets[entries] = labelEntry;
+		
+		return new CompactGraph(vertexNames, labelNames, offsets, targets, labelOffsets, labelIds, lowestLabelIds);
 	}
 	
 	/**
@@ -218,6 +539,7 @@ public class SimpleGraph {
 	 * given a list of the vertices on the path. (Uses the alphabetically lowest edges)
 	 *@param verticesOnPath - vertices on the path
 	 *@return - a string representation of "verticesOnPath" with alphabetically lowest edges.
+	 *@throws IllegalArgumentException - if two consecutive vertices on the path are not connected
 	 */
 	public String pathToString( List<String> verticesOnPath )
 	{
@@ -225,14 +547,12 @@ public class SimpleGraph {
 		
 		for( int index = 1; index < verticesOnPath.size(); index++ )
 		{
-			//This block sorts the edges between 2 vertices and chooses the lowest
-			Set<String> currentSet = new HashSet<String>();
 			String start = verticesOnPath.get(index-1);
 			String end =  verticesOnPath.get(index); 
-			currentSet.add( start);
-			currentSet.add( end );
-			SortedSet<Edge> edges = new TreeSet<Edge>( edgeMap.get(currentSet) ); //sort edges
-			String lowestEdge = edges.first().getLabel(); //Get lowest edge between 2 vertices
+			String[] labels = labelsOf(start, end);
+			if( labels == null )
+				throw new IllegalArgumentException();
+			String lowestEdge = labels[0]; //Labels are sorted, so the first is the lowest edge
 			
 			//String representation for the 2 vertices and the edge connecting them
 			path.append( start+ " and " + end + " appear in " + lowestEdge + "\n" );
@@ -261,148 +581,67 @@ public class SimpleGraph {
 	/**
 	 * Returns the set of all edges between the given pair of vertices if they exist in the graph
 	 * @param vertexPair - The pair of vertices whose edges you want to obtain
-	 * @return a set containing all the edges between "vertexPair"
+	 * @return a new set containing all the edges between "vertexPair"
 	 * @throws IllegalArgumentException - If no edges exist between the vertices in "vertexPair"
 	 */
 	public Set<Edge> getEdges( Set<String> vertexPair )
 	{
-		Set<Edge> edges = edgeMap.get(vertexPair);
-		if( edges == null )
+		if( vertexPair.size() != 2 )
 			throw new IllegalArgumentException();
-		else
-			return edges;
+		Iterator<String> vertices = vertexPair.iterator();
+		String vertex1 = vertices.next();
+		String vertex2 = vertices.next();
+		String[] labels = labelsOf(vertex1, vertex2);
+		if( labels == null )
+			throw new IllegalArgumentException();
+		
+		Set<Edge> edges = new HashSet<Edge>();
+		for( String label : labels )
+			edges.add( new Edge(vertex1, vertex2, label) );
+		return edges;
 	}
 	
 	/**
-	 * Checks if the specified SimpleGraph is equal to this by comparing adjacencyList and edgeMap
+	 * Checks if the specified SimpleGraph is equal to this by comparing the vertices, their neighbours and
+	 * the labels of the edges between every pair of neighbours
 	 *@param obj - the SimpleGraph you are comparing this to for equality.
-	 *@return true if obj's adjacencyList and edgeMap are equal to the ones in this, false if not, 
+	 *@return true if obj has the same vertices and edges as this, false if not, 
 	 *			 or obj not of type SimpleGraph
 	 */
 	@Override
 	 public boolean equals( Object obj )
 	{
-		if( hashCode() == obj.hashCode() && obj instanceof SimpleGraph)
+		if( obj instanceof SimpleGraph && hashCode() == obj.hashCode() )
 		{
 			SimpleGraph graph2 = (SimpleGraph) obj;
-			if( adjacencyList.equals(graph2.adjacencyList) && edgeMap.equals(graph2.edgeMap))
-				return true;
+			if( !adjacencyList.equals(graph2.adjacencyList) )
+				return false;
+			//Same neighbours, so compare the labels of every pair by name (the ids can be different)
+			for( Map.Entry< Long, String[] > pair : edgeMap.entrySet() )
+			{
+				String vertex1 = vertexNames.get( lowId(pair.getKey()) );
+				String vertex2 = vertexNames.get( highId(pair.getKey()) );
+				if( !Arrays.equals( pair.getValue(), graph2.labelsOf(vertex1, vertex2) ) )
+					return false;
+			}
+			return true;
 		}
 		return false;
 	}
 	
+	/**
+	 * Returns a hash code that only depends on the vertices and edges, not on the order they were added
+	 */
 	@Override
 	public int hashCode()
 	{
-		return 2*adjacencyList.hashCode() + 3*edgeMap.hashCode();
-	}
-
-	//INNER CLASS 
-	private class Search implements Callable<Void> 
-	{
-		/**This is a helper inner class to find the optimal path to all neighbours of a "level" of vertices
-		 * (ie vertices in currentVertices are a "level" as they are all equidistant from the start vertex) 
-		 * and add these neighbours to the next level of vertices (nextVertices) in preparation of the next search
-		 */
-		
-		//Maps each visited vertex to shortest and alphabetically correct path to get to it from startVertex
-		private Map<String, List<String>> completePaths;
-		
-		//temporary pathMap to hold tentative paths to vertices that may change due to alphabetical order
-		private Map<String, List<String>> tempPaths;
-		
-		//currentVertices for current "level" of vertices the threads are working on
-		//nextVertices for neighbours of the vertices in currentQueue 
-		private Queue<String> currentVertices = new ConcurrentLinkedQueue<String>();
-		private Queue<String> nextVertices = new ConcurrentLinkedQueue<String>();
-		
-		/**
-		 * Creates a search task with the given current queue, next queue, temporary path map and permanent pathMap.
-		 * @param completePaths - Map containing shortest and alphabetically lowest path for visited vertices
-		 * @param tempPaths - Empty map for temporarily saving paths to vertices being visited during the search.
-		 * @param root - vertex to start the search at
-		 */
-		private Search( Map<String, List<String>> completePaths, Map<String, List<String>> tempPaths, String root)
+		int edgeHash = 0;
+		for( Map.Entry< Long, String[] > pair : edgeMap.entrySet() )
 		{
-			this.completePaths = completePaths;
-			this.tempPaths = tempPaths;
-			currentVertices.offer(root); //Add startVertex to the current queue to start the search.
-		}
-		
-		/**
-		 * Updates the work queues for next round of searcing by switching currentQueue with nextQueue and
-		 * clearing nextQueue. Also returns true or false indicating if there are any vertices left to visit in search.
-		 * @modifies currentVertices - by assigning it to nextVertices. 
-		 * 			 nextVertices -    by making it empty
-		 * @return true if currentQueue is not empty, false otherwise
-		 */
-		private boolean updateSearch( )
-		{
-			Queue<String> tempQueue = currentVertices;
-			currentVertices = nextVertices; 
-			nextVertices = tempQueue; 
-			nextVertices.clear();	
-			return !currentVertices.isEmpty();
-		}
-		
-		/**
-		 * Populates tempMap with the shortest and alphabetically lowest paths to the neighbours of
-		 * the vertices in currentVertices, and also adds these neighbours to nextVertices. 
-		 * @return null - Return is irrelevant for the search
-		 * @modifies completePaths, tempPaths, currentVertices, and nextVertices 
-		 */
-		public Void call()
-		{
-			String currentVertex;
-			
-			//Process vertices in currentVertices till it's empty. Empty-Checks and dequeues are atomic
-			while( ( currentVertex = currentVertices.poll() ) != null )
-			{	
-				//Process each neighbour of currentVertex 
-				for( String neighbour : getNeighbours(currentVertex))
-				{
-					if (completePaths.get(neighbour) == null ) //Haven't found optimal path for "neighbour" yet
-					{
-						synchronized( neighbour ) //Lock so accesses to "neighbour" and its path are atomic
-						{
-							List<String> oldPath = tempPaths.get(neighbour);
-							List<String> newPath;
-							
-							//"neighbour" has not been visited. Create path for it
-							if( oldPath == null ) 
-							{
-								newPath = new ArrayList<String>( completePaths.get(currentVertex) );
-								newPath.add( neighbour ); 
-								tempPaths.put(neighbour, newPath); //Update optimal path for "neighbour"
-								nextVertices.offer( neighbour ); //Add to nextVertices queue
-							}
-							else //"neighbour" has already been visited 
-							{	List<String> currentPath = completePaths.get(currentVertex);
-								
-							//Compare vertices along both paths starting from beginning for lexic. order
-								for( int index = 0; index < oldPath.size()-1; index++ )
-								{
-									String current = currentPath.get(index);
-									String old = oldPath.get(index);
-									//Update tempMap to use currentPath if it is alphabetically lower than oldPath
-									if( current.compareTo(old) < 0 )
-									{
-										newPath = new ArrayList<String>( currentPath );
-										newPath.add( neighbour ); 
-										tempPaths.put(neighbour, newPath); //Update optimal path for "neighbour"
-										break;
-									}
-									else if( current.compareTo(old) > 0 )
-										break; //current path is lexic. > than old path, do nothing
-								}
-							}	
-						}
-					}
-				}
-			}
-			return null;
+			int pairHash = vertexNames.get( lowId(pair.getKey()) ).hashCode()
+					+ vertexNames.get( highId(pair.getKey()) ).hashCode();
+			edgeHash += 31 * pairHash + Arrays.hashCode( pair.getValue() );
 		}
+		return 2*adjacencyList.hashCode() + 3*edgeHash;
 	}
-	
-	
 }
@@ -0,0 +1,346 @@
+package mp5;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public final class TsvFile {
+
+	/**REP INVARIANT:
+	- characters.length == comics.length == rowStarts.length == number of rows
+	- rowStarts is increasing, and every row start is < end
+	- every id in characters and comics is a valid index of names
+	- names has no duplicates
+	*/
+
+	/**Abstraction Function
+	 - Row "r" of the file maps to the character names[characters[r]] appearing in the comic
+	 	names[comics[r]], with enclosing quotations removed. Rows are in the same order as the file.
+	 - Characters and comics share one table of names, so two rows have the same comic exactly
+	 	when their comic ids are equal.
+	 - Row "r" starts at byte base + rowStarts[r] of the file, and the rows read end at byte base + end.
+	 */
+
+	//every distinct name in the file, indexed by id in order of first appearance
+	private final String[] names;
+	//character id of every row
+	private final int[] characters;
+	//comic id of every row
+	private final int[] comics;
+	//first byte of every row, from the first byte read
+	private final int[] rowStarts;
+	//byte of the file reading started at
+	private final long base;
+	//number of bytes read, from base
+	private final int end;
+
+	private static final byte TAB = '\t';
+	private static final byte QUOTE = '"';
+	private static final byte NEWLINE = '\n';
+	private static final byte RETURN = '\r';
+
+	private TsvFile( String[] names, int[] characters, int[] comics, int[] rowStarts, long base, int end )
+	{
+		this.names = names;
+		this.characters = characters;
+		this.comics = comics;
+		this.rowStarts = rowStarts;
+		this.base = base;
+		this.end = end;
+	}
+
+	/**
+	 * Reads a tab-separated value file of 2 fields (like the Marvel Dataset) by memory-mapping it and
+	 * scanning its bytes for tabs, quotations and line ends. Each distinct name is decoded into a String
+	 * only once, the first time it appears, with the platform's default charset like FileReader does.
+	 * Lines end at "\n", "\r" or "\r\n" like BufferedReader.readLine().
+	 * @param data - file with the data you want to read
+	 * @requires data is a tsv file smaller than 2GB with exactly 2 fields and same format as Marvel Dataset
+	 * @return the rows of "data"
+	 * @throws FileNotFoundException - if "data" can't be opened
+	 * @throws IOException - if "data" can't be mapped
+	 */
+	public static TsvFile map( String data ) throws IOException
+	{
+		return map(data, 0, false);
+	}
+
+	/**
+	 * Reads the complete lines of a tab-separated value file from a byte offset on, like map(data). Only
+	 * lines that end with "\n" or "\r" are read, so a line that is still being appended to the file is
+	 * left for a later read.
+	 * @param data - file with the data you want to read
+	 * @param offset - byte of "data" to start reading at, the start of a line
+	 * @requires data is a tsv file smaller than 2GB with exactly 2 fields and same format as Marvel Dataset
+	 * @return the rows of the complete lines of "data" from "offset". endOffset() is the byte after the
+	 * 			last complete line.
+	 * @throws FileNotFoundException - if "data" can't be opened
+	 * @throws IOException - if "data" can't be mapped or is shorter than "offset"
+	 */
+	public static TsvFile map( String data, long offset ) throws IOException
+	{
+		return map(data, offset, true);
+	}
+
+	/**
+	 * Reads the file from "offset", to its end or to the end of its last complete line
+	 */
+	private static TsvFile map( String data, long offset, boolean completeLines ) throws IOException
+	{
+		RandomAccessFile file = new RandomAccessFile(data, "r");
+		MappedByteBuffer buffer;
+		try
+		{
+			FileChannel channel = file.getChannel();
+			if( offset < 0 || offset > channel.size() )
+				throw new IOException( data + " is shorter than offset " + offset );
+			buffer = channel.map( FileChannel.MapMode.READ_ONLY, offset, channel.size() - offset ); //Stays valid after close
+		}
+		finally
+		{
+			file.close();
+		}
+
+		int end = buffer.limit();
+		if( completeLines ) //Stop after the last line end
+		{
+			while( end > 0 && buffer.get(end-1) != NEWLINE && buffer.get(end-1) != RETURN )
+				end--;
+		}
+
+		SymbolTable symbols = new SymbolTable(buffer);
+		int[] characters = new int[1024];
+		int[] comics = new int[1024];
+		int[] rowStarts = new int[1024];
+		int rows = 0;
+		int position = 0;
+		while( position < end )
+		{
+			//Find the tab and the end of this line
+			int tab = -1;
+			int lineEnd = position;
+			while( lineEnd < end && buffer.get(lineEnd) != NEWLINE && buffer.get(lineEnd) != RETURN )
+			{
+				if( tab < 0 && buffer.get(lineEnd) == TAB )
+					tab = lineEnd;
+				lineEnd++;
+			}
+			if( tab >= 0 ) //Skip lines without 2 fields
+			{
+				int nextTab = tab + 1; //A third field is ignored, like String.split does
+				while( nextTab < lineEnd && buffer.get(nextTab) != TAB )
+					nextTab++;
+				if( rows == characters.length )
+				{
+					characters = Arrays.copyOf(characters, rows * 2);
+					comics = Arrays.copyOf(comics, rows * 2);
+					rowStarts = Arrays.copyOf(rowStarts, rows * 2);
+				}
+				characters[rows] = symbols.intern(position, tab);
+				comics[rows] = symbols.intern(tab + 1, nextTab);
+				rowStarts[rows] = position;
+				rows++;
+			}
+			//Skip the line end, treating "\r\n" as one
+			if( lineEnd + 1 < end && buffer.get(lineEnd) == RETURN && buffer.get(lineEnd+1) == NEWLINE )
+				lineEnd++;
+			position = lineEnd + 1;
+		}
+		return new TsvFile( symbols.names(), Arrays.copyOf(characters, rows), Arrays.copyOf(comics, rows),
+				Arrays.copyOf(rowStarts, rows), offset, end );
+	}
+
+	/**
+	 * Returns the number of rows in the file
+	 * @return the number of rows in the file
+	 */
+	public int rowCount()
+	{
+		return characters.length;
+	}
+
+	/**
+	 * Returns the character of a row
+	 * @param row - index of the row, 0 <= row < rowCount()
+	 * @return the character named in "row", without enclosing quotations
+	 */
+	public String getCharacter( int row )
+	{
+		return names[ characters[row] ];
+	}
+
+	/**
+	 * Returns the comic of a row
+	 * @param row - index of the row, 0 <= row < rowCount()
+	 * @return the comic named in "row", without enclosing quotations
+	 */
+	public String getComic( int row )
+	{
+		return names[ comics[row] ];
+	}
+
+	/**
+	 * Returns where a row starts in the file
+	 * @param row - index of the row, 0 <= row < rowCount()
+	 * @return the byte offset of the first byte of "row" in the file
+	 */
+	public long rowOffset( int row )
+	{
+		return base + rowStarts[row];
+	}
+
+	/**
+	 * Returns where reading stopped
+	 * @return the byte offset in the file after the last line read
+	 */
+	public long endOffset()
+	{
+		return base + end;
+	}
+
+	/**
+	 * Checks if 2 rows name the same comic without comparing Strings
+	 * @param row - index of a row, 0 <= row < rowCount()
+	 * @param other - index of a row, 0 <= other < rowCount()
+	 * @return true if "row" and "other" have the same comic, false otherwise
+	 */
+	public boolean sameComic( int row, int other )
+	{
+		return comics[row] == comics[other];
+	}
+
+	/**
+	 * Interns the names of a mapped file. A name is looked up by the bytes it occupies in the file, so a
+	 * name that was seen before is found without creating a String. Two different byte sequences that
+	 * decode to the same String (like two unmappable bytes) still get the same id.
+	 */
+	private static final class SymbolTable {
+
+		//the mapped file names are read from
+		private final MappedByteBuffer buffer;
+		//open-addressing hash table of the distinct byte sequences seen. Holds sequence index + 1, 0 if empty
+		private int[] table = new int[1 << 12];
+		//first byte, length, hash and name id of every distinct byte sequence
+		private int[] starts = new int[1 << 11];
+		private int[] lengths = new int[1 << 11];
+		private int[] hashes = new int[1 << 11];
+		private int[] ids = new int[1 << 11];
+		private int sequences = 0;
+		//distinct decoded names and their ids
+		private final Map<String, Integer> nameIds = new HashMap<String, Integer>();
+		private String[] names = new String[1 << 11];
+
+		SymbolTable( MappedByteBuffer buffer )
+		{
+			this.buffer = buffer;
+		}
+
+		/**
+		 * Returns the id of the name in buffer[ from .. to ) without its enclosing quotations
+		 * @modifies this, adding the name if it has not been seen before
+		 */
+		int intern( int from, int to )
+		{
+			if( to > from && buffer.get(from) == QUOTE ) //Get rid of outter quotations
+				from++;
+			if( to > from && buffer.get(to-1) == QUOTE )
+				to--;
+
+			int hash = 1;
+			for( int index = from; index < to; index++ )
+				hash = 31 * hash + buffer.get(index);
+			hash ^= hash >>> 16;
+
+			int mask = table.length - 1;
+			int slot = hash & mask;
+			while( table[slot] != 0 )
+			{
+				int sequence = table[slot] - 1;
+				if( hashes[sequence] == hash && equalBytes( starts[sequence], lengths[sequence], from, to ) )
+					return ids[sequence];
+				slot = (slot + 1) & mask;
+			}
+			return add( slot, hash, from, to );
+		}
+
+		/**
+		 * Returns the distinct names, indexed by id
+		 */
+		String[] names()
+		{
+			return Arrays.copyOf( names, nameIds.size() );
+		}
+
+		/**
+		 * Adds the byte sequence buffer[ from .. to ) with "hash" at the empty "slot" of the table
+		 * @return the id of its decoded name
+		 */
+		private int add( int slot, int hash, int from, int to )
+		{
+			byte[] bytes = new byte[to - from];
+			for( int index = from; index < to; index++ )
+				bytes[index - from] = buffer.get(index);
+			String name = new String( bytes, Charset.defaultCharset() );
+			Integer id = nameIds.get(name);
+			if( id == null )
+			{
+				id = nameIds.size();
+				nameIds.put(name, id);
+				if( id == names.length )
+					names = Arrays.copyOf(names, id * 2);
+				names[id] = name;
+			}
+
+			if( sequences == starts.length )
+			{
+				starts = Arrays.copyOf(starts, sequences * 2);
+				lengths = Arrays.copyOf(lengths, sequences * 2);
+				hashes = Arrays.copyOf(hashes, sequences * 2);
+				ids = Arrays.copyOf(ids, sequences * 2);
+			}
+			starts[sequences] = from;
+			lengths[sequences] = to - from;
+			hashes[sequences] = hash;
+			ids[sequences] = id;
+			table[slot] = ++sequences;
+			if( sequences * 2 > table.length ) //Keep the table at most half full
+				rehash();
+			return id;
+		}
+
+		/**
+		 * Doubles the size of the table
+		 */
+		private void rehash()
+		{
+			table = new int[ table.length * 2 ];
+			int mask = table.length - 1;
+			for( int sequence = 0; sequence < sequences; sequence++ )
+			{
+				int slot = hashes[sequence] & mask;
+				while( table[slot] != 0 )
+					slot = (slot + 1) & mask;
+				table[slot] = sequence + 1;
+			}
+		}
+
+		/**
+		 * Checks if buffer[ start .. start+length ) and buffer[ from .. to ) hold the same bytes
+		 */
+		private boolean equalBytes( int start, int length, int from, int to )
+		{
+			if( length != to - from )
+				return false;
+			for( int index = 0; index < length; index++ )
+				if( buffer.get(start + index) != buffer.get(from + index) )
+					return false;
+			return true;
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import mp5.CompactGraph;
+import mp5.MarvelGenerator;
+import mp5.NoPathException;
+import mp5.PathListener;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * This class tests batchSearch on the "dc.tsv" graph. Every pair it reports must have the same path as
+ * bidirectionalSearch finds for that pair.
+ */
+public class BatchSearchTests {
+static CompactGraph dcGraph;
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		dcGraph = MarvelGenerator.generateGraph("dc.tsv").compile();
+	}
+
+	/**
+	 * Records every result of a batchSearch as a path, with null for no path
+	 */
+	private static class Results implements PathListener {
+		List<String> starts = new ArrayList<String>();
+		List<String> ends = new ArrayList<String>();
+		List<List<String>> paths = new ArrayList<List<String>>();
+
+		public void pathFound( String startVertex, String endVertex, int distance, List<String> path ) {
+			assertEquals( path.size() - 1, distance );
+			starts.add(startVertex);
+			ends.add(endVertex);
+			paths.add(path);
+		}
+
+		public void noPath( String startVertex, String endVertex ) {
+			starts.add(startVertex);
+			ends.add(endVertex);
+			paths.add(null);
+		}
+	}
+
+	/**TEST EVERY PAIR OF CHARACTERS, with more than 64 end vertices so there are several batches
+	 * Expected: one result for every pair, each the same as bidirectionalSearch
+	 */
+	@Test
+	public void everyPair() {
+		List<String> vertices = new ArrayList<String>();
+		for( int id = 0; id < dcGraph.vertexCount(); id++ )
+			vertices.add( dcGraph.getVertex(id) );
+		List<String> ends = new ArrayList<String>();
+		while( ends.size() <= 64 )
+			ends.addAll(vertices);
+
+		Results results = new Results();
+		dcGraph.batchSearch(vertices, ends, results);
+		assertEquals( vertices.size() * ends.size(), results.paths.size() );
+		for( int result = 0; result < results.paths.size(); result++ )
+		{
+			List<String> correct;
+			try {
+				correct = dcGraph.bidirectionalSearch( results.starts.get(result), results.ends.get(result) );
+			}
+			catch( NoPathException e ) {
+				correct = null;
+			}
+			assertEquals( correct, results.paths.get(result) );
+		}
+	}
+
+	/**TEST VERTICES NOT ON THE GRAPH and quotations around the vertices
+	 * Expected: no path reported for pairs with a missing vertex, quotations removed from the rest
+	 */
+	@Test
+	public void missingVertices() {
+		Results results = new Results();
+		dcGraph.batchSearch( Arrays.asList("\"Batman\"", "Nobody"), Arrays.asList("Chloe Sullivan", "Nobody"), results );
+		assertEquals( Arrays.asList("Batman", "Batman", "Nobody", "Nobody"), results.starts );
+		assertEquals( Arrays.asList("Batman", "Green Arrow", "Chloe Sullivan"), results.paths.get(0) );
+		assertNull( results.paths.get(1) );
+		assertNull( results.paths.get(2) );
+		assertEquals( Arrays.asList("Nobody"), results.paths.get(3) ); //start and end are the same
+	}
+}
@@ -0,0 +1,107 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import mp5.BfsTree;
+import mp5.CompactGraph;
+import mp5.MarvelGenerator;
+import mp5.NoPathException;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * This class tests the BFS trees of the "dc.tsv" graph. Every path of a tree must be the same path
+ * breadthFirstSearch finds.
+ */
+public class BfsTreeTests {
+static CompactGraph dcGraph;
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		dcGraph = MarvelGenerator.generateGraph("dc.tsv").compile();
+	}
+
+	/**TEST COMPLICATED PATH from a tree: Random Pedestrian --> Darkseid
+	 * Expected: Random Pedestrian -> Batman -> Ra's al Ghul -> Darkseid, at distance 3
+	 */
+	@Test
+	public void complicatedPath() {
+		BfsTree tree = dcGraph.bfsTree("\"Random Pedestrian\"", 1);
+		List<String> correct = new ArrayList<String>();
+		correct.add("Random Pedestrian");
+		correct.add("Batman");
+		correct.add("Ra's al Ghul");
+		correct.add("Darkseid");
+		assertEquals( correct, tree.pathTo("Darkseid") );
+		assertEquals( 3, tree.distanceTo("Darkseid") );
+		assertEquals( "Random Pedestrian", tree.getStartVertex() );
+	}
+
+	/**TEST EVERY PAIR OF CHARACTERS, with trees searched by 1 and 3 threads
+	 * Expected: every path the same as breadthFirstSearch, and NoPathException for the same pairs
+	 */
+	@Test
+	public void everyPair() {
+		for( int threads = 1; threads <= 3; threads += 2 )
+		{
+			for( int start = 0; start < dcGraph.vertexCount(); start++ )
+			{
+				BfsTree tree = dcGraph.bfsTree( dcGraph.getVertex(start), threads );
+				for( int end = 0; end < dcGraph.vertexCount(); end++ )
+				{
+					List<String> correct;
+					try {
+						correct = dcGraph.breadthFirstSearch( dcGraph.getVertex(start), dcGraph.getVertex(end), 1 );
+					}
+					catch( NoPathException e ) {
+						correct = null;
+					}
+					try {
+						assertEquals( correct, tree.pathTo( dcGraph.getVertex(end) ) );
+						assertEquals( correct.size() - 1, tree.distanceTo( dcGraph.getVertex(end) ) );
+					}
+					catch( NoPathException e ) {
+						assertNull( correct );
+						assertEquals( -1, tree.distanceTo( dcGraph.getVertex(end) ) );
+					}
+				}
+			}
+		}
+	}
+
+	/**TEST MISSING VERTICES: a tree from a vertex not on the graph, and a path to one
+	 * Expected: IllegalArgumentException for the tree, NoPathException for the path
+	 */
+	@Test
+	public void missingVertices() {
+		try {
+			dcGraph.bfsTree("Nobody", 1);
+			fail();
+		}
+		catch( IllegalArgumentException e ) {
+		}
+		try {
+			dcGraph.bfsTree("Batman", 1).pathTo("Nobody");
+			fail();
+		}
+		catch( NoPathException e ) {
+		}
+	}
+
+	/**TEST TREE AFTER MORE SEARCHES: Random Pedestrian's tree, then searches and a tree from other vertices
+	 * Expected: The tree still has its own paths, since later searches don't share its arrays
+	 */
+	@Test
+	public void laterSearches() {
+		BfsTree tree = dcGraph.bfsTree("Random Pedestrian", 1);
+		dcGraph.bfsTree("Zero", 1);
+		dcGraph.breadthFirstSearch("Chloe Sullivan", "Darkseid", 1);
+		dcGraph.bidirectionalSearch("Zero", "Flash");
+		assertEquals( 3, tree.distanceTo("Darkseid") );
+		assertEquals( "Random Pedestrian", tree.pathTo("Darkseid").get(0) );
+		assertEquals( -1, tree.distanceTo("Daler Mehndi") );
+	}
+}
@@ -0,0 +1,165 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import mp5.CompactGraph;
+import mp5.MarvelGenerator;
+import mp5.NoPathException;
+import mp5.SimpleGraph;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * This class uses the same test cases as SinglethreadSearchTests, but uses the bidirectional search.
+ * The bidirectional search must find the exact same paths as the breadth first search.
+ */
+public class BidirectionalSearchTests {
+static SimpleGraph dcGraph;
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		dcGraph = MarvelGenerator.generateGraph("dc.tsv");
+	}
+
+	/**TEST LONG VS SHORT PATH: Batman --> Chloe Sullivan
+	 * Expected: Shorter path Batman -> Green Arrow -> Chloe Sullivan taken
+	 */
+	@Test
+	public void longPathVsShort() {
+		List<String> correct = new ArrayList<String>();
+		correct.add("Batman");
+		correct.add("Green Arrow");
+		correct.add("Chloe Sullivan");
+		assertEquals( correct, dcGraph.bidirectionalSearch("Batman", "Chloe Sullivan"));
+	}
+	
+	/**TEST SIMPLE ALPHABETICAL ORDER of Vertices (at the final level) Captain America --> Deathstroke
+	 * Expected: Captain America -> Batman -> Flash -> Deathstroke, because Flash is alphabetically
+	 * before Green Arrow
+	 */
+	@Test
+	public void alphabetOrderVertices() {
+		List<String> correct = new ArrayList<String>();
+		correct.add("Captain America");
+		correct.add("Batman");
+		correct.add("Flash");
+		correct.add("Deathstroke");
+		assertEquals( correct, dcGraph.bidirectionalSearch("Captain America", "Deathstroke"));
+	}
+
+	/**TEST COMPLICATED PATH (many possible paths, lot's of alphabetical order computations) 
+	 * Random Pedestrian --> Darkseid
+	 * Expected: Random Pedestrian -> Batman -> Ra's al Ghul -> Darkseid
+	 */
+	@Test
+	public void complicatedPath() {
+		List<String> correct = new ArrayList<String>();
+		correct.add("Random Pedestrian");
+		correct.add("Batman");
+		correct.add("Ra's al Ghul");
+		correct.add("Darkseid");
+		assertEquals( correct, dcGraph.bidirectionalSearch("Random Pedestrian", "Darkseid"));
+	}
+	
+	/**TEST ALPHABETICAL ORDER ACROSS THE MEETING POINT. Darkseid --> Random Pedestrian
+	 * The lowest path from each end is different, so the halves can't be joined naively.
+	 * Expected: Same path as the breadth first search
+	 */
+	@Test
+	public void alphabetOrderReverse() {
+		assertEquals( dcGraph.breadthFirstSearch("Darkseid", "Random Pedestrian", 1),
+				dcGraph.bidirectionalSearch("Darkseid", "Random Pedestrian"));
+	}
+	
+	/**TEST REPEATED SEARCHES: every pair of characters twice, on one compiled graph. Later searches
+	 * reuse the arrays of earlier ones, so nothing left by an earlier search may change a later path.
+	 * Expected: Same paths (or no path) both times, and the same paths as the breadth first search
+	 */
+	@Test
+	public void repeatedSearches() {
+		CompactGraph compiled = dcGraph.compile();
+		List<String> first = new ArrayList<String>();
+		for( int round = 0; round < 2; round++ )
+		{
+			int pair = 0;
+			for( int start = 0; start < compiled.vertexCount(); start++ )
+			{
+				for( int end = 0; end < compiled.vertexCount(); end++ )
+				{
+					String path;
+					try {
+						List<String> found = compiled.bidirectionalSearch(compiled.getVertex(start), compiled.getVertex(end));
+						assertEquals( compiled.breadthFirstSearch(compiled.getVertex(start), compiled.getVertex(end), 1), found );
+						path = found.toString();
+					}
+					catch( NoPathException e ) {
+						path = "no path";
+					}
+					if( round == 0 )
+						first.add(path);
+					else
+						assertEquals( first.get(pair), path );
+					pair++;
+				}
+			}
+		}
+	}
+
+	/**Extra long path test, with multiple possible paths. Chloe Sullivan -> Zero 
+	 * Expected: Chloe Sullivan -> Green Arrow -> Batman -> Captain America -> Zero
+	 */
+	@Test
+	public void longPath() {
+		List<String> correct = new ArrayList<String>();
+		correct.add("Chloe Sullivan");
+		correct.add("Green Arrow");
+		correct.add("Batman");
+		correct.add("Captain America");
+		correct.add("Zero");
+		assertEquals(correct, dcGraph.bidirectionalSearch("Chloe Sullivan", "Zero"));
+	}
+	
+	/**Test No path. Batman -> Daler Mehndi
+	 * Expected: No path
+	 */
+	@Test
+	public void testNoPath() {
+		try{
+			dcGraph.bidirectionalSearch("Batman", "Daler Mehndi");
+			fail();
+		}
+		catch(NoPathException e)
+		{
+			assertEquals(true,true);
+		}
+	}
+	
+	/**Test start and end same. Batman -> Batman
+	 * Expected: Return path with just Batman
+	 */
+	@Test
+	public void testPathToSelf() {
+		List<String> correct = new ArrayList<String>();
+		correct.add("Batman");
+		assertEquals( correct, dcGraph.bidirectionalSearch("Batman", "Batman"));
+	}
+	
+	/**
+	 * TEST NON-EXIST VERTICES
+	 * Expected: Throw exception because vertices not on graph
+	 */
+	@Test
+	public void nonexistentVertices() {
+		try{
+			dcGraph.bidirectionalSearch("Relad", "Ryu");
+			fail();
+		}
+		catch(Exception e )
+		{
+			
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import mp5.ComicGraph;
+import mp5.MarvelGenerator;
+import mp5.NoPathException;
+import mp5.SimpleGraph;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * This class uses the same test cases as SinglethreadSearchTests, but searches a ComicGraph of "dc.tsv".
+ * The ComicGraph must find the exact same paths and lowest edges as the SimpleGraph of the same file.
+ */
+public class ComicGraphTests {
+static ComicGraph comicGraph;
+static SimpleGraph dcGraph;
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		comicGraph = MarvelGenerator.generateComicGraph("dc.tsv");
+		dcGraph = MarvelGenerator.generateGraph("dc.tsv");
+	}
+
+	/**TEST LONG VS SHORT PATH: Batman --> Chloe Sullivan
+	 * Expected: Shorter path Batman -> Green Arrow -> Chloe Sullivan taken
+	 */
+	@Test
+	public void longPathVsShort() {
+		List<String> correct = new ArrayList<String>();
+		correct.add("Batman");
+		correct.add("Green Arrow");
+		correct.add("Chloe Sullivan");
+		assertEquals( correct, comicGraph.breadthFirstSearch("Batman", "Chloe Sullivan"));
+	}
+	
+	/**TEST SIMPLE ALPHABETICAL ORDER of Vertices (at the final level) Captain America --> Deathstroke
+	 * Expected: Captain America -> Batman -> Flash -> Deathstroke, because Flash is alphabetically
+	 * before Green Arrow
+	 */
+	@Test
+	public void alphabetOrderVertices() {
+		List<String> correct = new ArrayList<String>();
+		correct.add("Captain America");
+		correct.add("Batman");
+		correct.add("Flash");
+		correct.add("Deathstroke");
+		assertEquals( correct, comicGraph.breadthFirstSearch("Captain America", "Deathstroke"));
+	}
+
+	/**TEST COMPLICATED PATH (many possible paths, lot's of alphabetical order computations) 
+	 * Random Pedestrian --> Darkseid
+	 * Expected: Random Pedestrian -> Batman -> Ra's al Ghul -> Darkseid
+	 */
+	@Test
+	public void complicatedPath() {
+		List<String> correct = new ArrayList<String>();
+		correct.add("Random Pedestrian");
+		correct.add("Batman");
+		correct.add("Ra's al Ghul");
+		correct.add("Darkseid");
+		assertEquals( correct, comicGraph.breadthFirstSearch("Random Pedestrian", "Darkseid"));
+	}
+	
+	/**TEST EVERY PAIR OF CHARACTERS against the SimpleGraph
+	 * Expected: Same paths and same path strings (lowest comics) as SimpleGraph, and no path exactly
+	 * when SimpleGraph has none
+	 */
+	@Test
+	public void samePathsAsSimpleGraph() {
+		for( int start = 0; start < comicGraph.vertexCount(); start++ )
+		{
+			for( int end = 0; end < comicGraph.vertexCount(); end++ )
+			{
+				List<String> expected;
+				try{
+					expected = dcGraph.breadthFirstSearch(comicGraph.getVertex(start), comicGraph.getVertex(end), 1);
+				}
+				catch(NoPathException e)
+				{
+					expected = null;
+				}
+				try{
+					List<String> path = comicGraph.breadthFirstSearch(comicGraph.getVertex(start), comicGraph.getVertex(end));
+					assertEquals( expected, path );
+					assertEquals( dcGraph.pathToString(expected), comicGraph.pathToString(path) );
+				}
+				catch(NoPathException e)
+				{
+					assertNull(expected);
+				}
+			}
+		}
+	}
+	
+	/**TEST NEIGHBOURS of every character against the SimpleGraph
+	 * Expected: Same neighbours, in alphabetical order
+	 */
+	@Test
+	public void sameNeighboursAsSimpleGraph() {
+		assertEquals( dcGraph.compile().vertexCount(), comicGraph.vertexCount() );
+		for( int id = 0; id < comicGraph.vertexCount(); id++ )
+		{
+			String vertex = comicGraph.getVertex(id);
+			assertEquals( new ArrayList<String>( new TreeSet<String>( dcGraph.getNeighbours(vertex) ) ),
+					comicGraph.getNeighbours(vertex) );
+		}
+	}
+	
+	/**Extra long path test, with multiple possible paths. Chloe Sullivan -> Zero 
+	 * Expected: Chloe Sullivan -> Green Arrow -> Batman -> Captain America -> Zero
+	 */
+	@Test
+	public void longPath() {
+		List<String> correct = new ArrayList<String>();
+		correct.add("Chloe Sullivan");
+		correct.add("Green Arrow");
+		correct.add("Batman");
+		correct.add("Captain America");
+		correct.add("Zero");
+		assertEquals(correct, comicGraph.breadthFirstSearch("Chloe Sullivan", "Zero"));
+	}
+	
+	/**Test No path. Batman -> Daler Mehndi
+	 * Expected: No path
+	 */
+	@Test
+	public void testNoPath() {
+		try{
+			comicGraph.breadthFirstSearch("Batman", "Daler Mehndi");
+			fail();
+		}
+		catch(NoPathException e)
+		{
+			assertEquals(true,true);
+		}
+	}
+	
+	/**Test start and end same. Batman -> Batman
+	 * Expected: Return path with just Batman
+	 */
+	@Test
+	public void testPathToSelf() {
+		List<String> correct = new ArrayList<String>();
+		correct.add("Batman");
+		assertEquals( correct, comicGraph.breadthFirstSearch("Batman", "Batman"));
+	}
+	
+	/**
+	 * TEST NON-EXIST VERTICES
+	 * Expected: Throw exception because vertices not on graph
+	 */
+	@Test
+	public void nonexistentVertices() {
+		try{
+			comicGraph.breadthFirstSearch("Relad", "Ryu");
+			fail();
+		}
+		catch(Exception e )
+		{
+			
+		}
+	}
+}
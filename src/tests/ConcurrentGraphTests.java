@@ -0,0 +1,90 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import mp5.CompactGraph;
+import mp5.ConcurrentGraph;
+import mp5.MarvelGenerator;
+
+import org.junit.Test;
+
+/**
+ * This class tests changing a ConcurrentGraph of "dc.tsv" while other threads search it.
+ */
+public class ConcurrentGraphTests {
+
+	/**TEST PUBLISHING: add an edge, then publish
+	 * Expected: searches only see the edge after publish(), and an older snapshot never sees it
+	 */
+	@Test
+	public void publishMakesChangesVisible() throws Exception {
+		ConcurrentGraph graph = new ConcurrentGraph( MarvelGenerator.generateGraph("dc.tsv") );
+		CompactGraph before = graph.snapshot();
+		graph.addEdge("Random Pedestrian", "Darkseid", "Crossover");
+		assertEquals( 4, graph.bidirectionalSearch("Random Pedestrian", "Darkseid").size() );
+		assertSame( before, graph.snapshot() );
+		assertEquals( 0, graph.version() );
+
+		graph.publish();
+		assertEquals( 1, graph.version() );
+		assertEquals( Arrays.asList("Random Pedestrian", "Darkseid"), graph.bidirectionalSearch("Random Pedestrian", "Darkseid") );
+		assertEquals( 4, before.bidirectionalSearch("Random Pedestrian", "Darkseid").size() );
+	}
+
+	/**TEST SEARCHES DURING INGESTION: 3 threads search while this thread adds and publishes 50 batches of
+	 * edges, finishing with an edge that makes a shorter path
+	 * Expected: no search fails, every path found is a path of the version it was searched on and is
+	 * never longer than the first one, and the shorter path is found at the end
+	 */
+	@Test
+	public void searchesDuringIngestion() throws Exception {
+		final ConcurrentGraph graph = new ConcurrentGraph( MarvelGenerator.generateGraph("dc.tsv") );
+		final List<Throwable> failures = Collections.synchronizedList( new ArrayList<Throwable>() );
+		final AtomicBoolean done = new AtomicBoolean(false);
+		List<Thread> readers = new ArrayList<Thread>();
+		for( int reader = 0; reader < 3; reader++ )
+		{
+			Thread thread = new Thread( new Runnable() {
+				public void run() {
+					try {
+						while( !done.get() )
+						{
+							CompactGraph version = graph.snapshot(); //Pin one version for the checks
+							List<String> path = version.bidirectionalSearch("Random Pedestrian", "Darkseid");
+							assertTrue( path.size() <= 4 );
+							for( int index = 1; index < path.size(); index++ )
+								assertTrue( version.getNeighbours( path.get(index-1) ).contains( path.get(index) ) );
+						}
+					}
+					catch( Throwable e ) {
+						failures.add(e);
+					}
+				}
+			});
+			thread.start();
+			readers.add(thread);
+		}
+
+		for( int batch = 0; batch < 50; batch++ )
+		{
+			for( int edge = 0; edge < 20; edge++ )
+				graph.addEdge( "Extra " + batch + "-" + edge, edge % 2 == 0 ? "Batman" : "Joker", "Batch " + batch );
+			graph.publish();
+		}
+		graph.addEdge("Random Pedestrian", "Darkseid", "Crossover");
+		graph.publish();
+		done.set(true);
+		for( Thread thread : readers )
+			thread.join();
+
+		assertEquals( Collections.emptyList(), failures );
+		assertEquals( 51, graph.version() );
+		assertEquals( Arrays.asList("Random Pedestrian", "Darkseid"), graph.bidirectionalSearch("Random Pedestrian", "Darkseid") );
+	}
+}
@@ -0,0 +1,78 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import mp5.CompactGraph;
+import mp5.DistanceOracle;
+import mp5.MarvelGenerator;
+import mp5.NoPathException;
+import mp5.SimpleGraph;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * This class tests the DistanceOracle of the "dc.tsv" graph, with a vertex added that has no edges.
+ * Every distance must be the length of the path bidirectionalSearch finds.
+ */
+public class DistanceOracleTests {
+static CompactGraph dcGraph;
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		SimpleGraph graph = MarvelGenerator.generateGraph("dc.tsv");
+		graph.addVertex("Loner");
+		dcGraph = graph.compile();
+	}
+
+	/**TEST EVERY PAIR OF CHARACTERS, with 0, 1 and 3 landmarks
+	 * Expected: connected and distance match bidirectionalSearch, and the bounds hold the distance
+	 */
+	@Test
+	public void everyPair() {
+		for( int landmarks = 0; landmarks <= 3; landmarks += landmarks + 1 )
+		{
+			DistanceOracle oracle = new DistanceOracle(dcGraph, landmarks);
+			for( int start = 0; start < dcGraph.vertexCount(); start++ )
+			{
+				for( int end = 0; end < dcGraph.vertexCount(); end++ )
+				{
+					String startVertex = dcGraph.getVertex(start);
+					String endVertex = dcGraph.getVertex(end);
+					int correct;
+					try {
+						List<String> path = dcGraph.bidirectionalSearch(startVertex, endVertex);
+						correct = path.size() - 1;
+					}
+					catch( NoPathException e ) {
+						correct = -1;
+					}
+					assertEquals( correct >= 0, oracle.connected(startVertex, endVertex) );
+					assertEquals( correct, oracle.distance(startVertex, endVertex) );
+					if( correct >= 0 )
+					{
+						assertTrue( oracle.lowerBound(startVertex, endVertex) <= correct );
+						assertTrue( oracle.upperBound(startVertex, endVertex) >= correct );
+					}
+				}
+			}
+		}
+	}
+
+	/**TEST COMPONENTS: the dc graph (Daler Mehndi is the only character of his comic) and a vertex with no edges
+	 * Expected: 3 components, Daler Mehndi and Loner each alone in one
+	 */
+	@Test
+	public void components() {
+		DistanceOracle oracle = new DistanceOracle(dcGraph, 2);
+		assertEquals( 3, oracle.componentCount() );
+		assertEquals( oracle.componentOf("Batman"), oracle.componentOf("\"Darkseid\"") );
+		assertFalse( oracle.componentOf("Batman") == oracle.componentOf("Loner") );
+		assertFalse( oracle.componentOf("Daler Mehndi") == oracle.componentOf("Loner") );
+		assertFalse( oracle.connected("Batman", "Loner") );
+		assertEquals( -1, oracle.upperBound("Batman", "Loner") );
+		assertEquals( -1, oracle.componentOf("Nobody") );
+		assertEquals( -1, oracle.distance("Nobody", "Batman") );
+	}
+}
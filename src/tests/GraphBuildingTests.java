@@ -3,6 +3,7 @@ package tests;
 
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -88,6 +89,99 @@ public class GraphBuildingTests {
 		assertEquals( 1, graph.getEdges(pair).size());
 	}
 	
+	/**Test that graphs with the same vertices and edges are equal no matter the order they were added in
+	 * Expected: Graphs equal with equal hash codes, and not equal once one has an extra edge
+	 */
+	@Test
+	public void equalsIgnoresOrder() {
+		SimpleGraph graph1 = new SimpleGraph();
+		graph1.addVertex("Daler Mehndi");
+		graph1.addEdge( "Daler", "Relad", "Revelation" );
+		graph1.addEdge( "Relad", "Idnhem", "Heaven vs Hell" );
+		SimpleGraph graph2 = new SimpleGraph();
+		graph2.addEdge( "Idnhem", "Relad", "Heaven vs Hell" );
+		graph2.addEdge( "Relad", "Daler", "Revelation" );
+		graph2.addVertex("Daler Mehndi");
+		assertEquals( graph1, graph2 );
+		assertEquals( graph1.hashCode(), graph2.hashCode() );
+		graph2.addEdge( "Relad", "Daler", "Tunak Tunak Tun" );
+		assertFalse( graph1.equals(graph2) );
+	}
+	
+	/**Test getPartner from both ends of an edge, and from a vertex not on the edge
+	 * Expected: The other vertex, or IllegalArgumentException
+	 */
+	@Test
+	public void edgePartner() {
+		Edge edge = new Edge( "Relad", "Daler", "Revelation" );
+		assertEquals( "Relad", edge.getPartner("Daler") );
+		assertEquals( "Daler", edge.getPartner("Relad") );
+		try{
+			edge.getPartner("Idnhem");
+			fail();
+		}
+		catch(IllegalArgumentException e)
+		{
+		}
+	}
+	
+	/**Test that pathToString uses the lowest edge when edges are added out of order, and when the edges
+	 * come from another graph merged with addGraph
+	 * Expected: "Heaven vs Hell" is the lowest edge in every case, in both directions
+	 */
+	@Test
+	public void lowestEdgeAfterAdding() {
+		SimpleGraph graph = new SimpleGraph();
+		graph.addEdge( "Daler", "Relad", "Revelation" );
+		graph.addEdge( "Relad", "Daler", "Heaven vs Hell" );
+		graph.addEdge( "Daler", "Relad", "Tunak Tunak Tun" );
+		assertEquals( "Daler and Relad appear in Heaven vs Hell\n", graph.pathToString( Arrays.asList("Daler", "Relad") ) );
+		assertEquals( "Relad and Daler appear in Heaven vs Hell\n", graph.pathToString( Arrays.asList("Relad", "Daler") ) );
+		
+		SimpleGraph merged = new SimpleGraph();
+		merged.addEdge( "Daler", "Relad", "Revelation" );
+		SimpleGraph other = new SimpleGraph();
+		other.addEdge( "Daler", "Relad", "Heaven vs Hell" );
+		merged.addGraph(other);
+		assertEquals( "Daler and Relad appear in Heaven vs Hell\n", merged.pathToString( Arrays.asList("Daler", "Relad") ) );
+		assertEquals( graph.pathToString( Arrays.asList("Relad", "Daler") ), graph.compile().pathToString( Arrays.asList("Relad", "Daler") ) );
+	}
+	
+	/**Test the connected components as vertices and edges are added, and when 2 graphs are merged
+	 * Expected: components join when an edge connects them, and merging joins components connected
+	 * in either graph
+	 */
+	@Test
+	public void connectedComponents() {
+		SimpleGraph graph = new SimpleGraph();
+		graph.addVertex( "Daler" );
+		graph.addVertex( "Relad" );
+		graph.addEdge( "Idnhem", "Mehndi", "Tunak Tunak Tun" );
+		assertEquals( 3, graph.componentCount() );
+		assertFalse( graph.isConnected("Daler", "Relad") );
+		assertFalse( graph.isConnected("Daler", "Nobody") );
+		graph.addEdge( "Daler", "Mehndi", "Revelation" );
+		assertTrue( graph.isConnected("Daler", "Idnhem") );
+		assertEquals( Arrays.asList(3, 1), graph.componentSizes() );
+		assertEquals( 3, graph.componentSize("Idnhem") );
+		assertEquals( 0, graph.componentSize("Nobody") );
+		try{
+			graph.breadthFirstSearch( "Daler", "Relad", 1 );
+			fail();
+		}
+		catch(NoPathException e)
+		{
+		}
+		
+		SimpleGraph other = new SimpleGraph();
+		other.addEdge( "Relad", "Zero", "Heaven vs Hell" );
+		other.addEdge( "Zero", "Idnhem", "Heaven vs Hell" );
+		graph.addGraph(other);
+		assertEquals( 1, graph.componentCount() );
+		assertTrue( graph.isConnected("Daler", "Relad") );
+		assertEquals( Arrays.asList(5), graph.componentSizes() );
+	}
+	
 
 	
 }
@@ -0,0 +1,250 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import mp5.CompactGraph;
+import mp5.GraphServer;
+import mp5.MarvelGenerator;
+import mp5.NoPathException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * This class tests a GraphServer on the "dc.tsv" graph through its line protocol. Every path it answers
+ * must be the path bidirectionalSearch finds.
+ */
+public class GraphServerTests {
+static CompactGraph dcGraph;
+	GraphServer server;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		dcGraph = MarvelGenerator.generateGraph("dc.tsv").compile();
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		server = new GraphServer(dcGraph, 0, 2);
+		server.start();
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		server.close();
+	}
+
+	/**TEST SIMPLE REQUESTS on one connection: a path, no path, an unknown vertex and a bad line
+	 * Expected: PATH with the vertices, NOPATH twice, then ERROR
+	 */
+	@Test
+	public void requests() throws IOException {
+		Socket socket = connect();
+		try
+		{
+			assertEquals( "PATH\tRandom Pedestrian\tBatman\tRa's al Ghul\tDarkseid", ask(socket, "Random Pedestrian\tDarkseid") );
+			assertEquals( "NOPATH", ask(socket, "Batman\tDaler Mehndi") );
+			assertEquals( "NOPATH", ask(socket, "Relad\tRyu") );
+			assertEquals( "PATH\tBatman", ask(socket, "\"Batman\"\tBatman") );
+			assertTrue( ask(socket, "Batman").startsWith("ERROR") );
+		}
+		finally
+		{
+			socket.close();
+		}
+	}
+
+	/**TEST QUIET NOPATH: ask for a path that doesn't exist and one with an unknown vertex
+	 * Expected: NOPATH for both, with nothing printed to System.out while answering them
+	 */
+	@Test
+	public void quietNoPath() throws IOException {
+		Socket socket = connect();
+		PrintStream console = System.out;
+		ByteArrayOutputStream printed = new ByteArrayOutputStream();
+		System.setOut( new PrintStream(printed) );
+		try
+		{
+			assertEquals( "NOPATH", ask(socket, "Batman\tDaler Mehndi") );
+			assertEquals( "NOPATH", ask(socket, "Relad\tRyu") );
+		}
+		finally
+		{
+			System.setOut(console);
+			socket.close();
+		}
+		assertEquals( "", printed.toString() );
+	}
+
+	/**TEST PIPELINED REQUESTS: every pair of characters sent before reading any answer
+	 * Expected: The answers in the same order, each the path of bidirectionalSearch (or NOPATH)
+	 */
+	@Test
+	public void pipelined() throws IOException {
+		Socket socket = connect();
+		try
+		{
+			Writer out = new OutputStreamWriter( socket.getOutputStream(), "UTF-8" );
+			for( int start = 0; start < dcGraph.vertexCount(); start++ )
+				for( int end = 0; end < dcGraph.vertexCount(); end++ )
+					out.write( dcGraph.getVertex(start) + "\t" + dcGraph.getVertex(end) + "\n" );
+			out.write("QUIT\n");
+			out.flush();
+
+			BufferedReader in = new BufferedReader( new InputStreamReader( socket.getInputStream(), "UTF-8" ) );
+			for( int start = 0; start < dcGraph.vertexCount(); start++ )
+				for( int end = 0; end < dcGraph.vertexCount(); end++ )
+					assertEquals( expected( dcGraph.getVertex(start), dcGraph.getVertex(end) ), in.readLine() );
+			assertNull( in.readLine() ); //Closed after QUIT
+		}
+		finally
+		{
+			socket.close();
+		}
+	}
+
+	/**TEST MANY CONNECTIONS: 200 connections open at once, each asking one request
+	 * Expected: Every connection answered, and none left open once the clients close them
+	 */
+	@Test
+	public void manyConnections() throws IOException, InterruptedException {
+		List<Socket> sockets = new ArrayList<Socket>();
+		try
+		{
+			for( int client = 0; client < 200; client++ )
+				sockets.add( connect() );
+			for( int client = 0; client < sockets.size(); client++ )
+			{
+				String start = dcGraph.getVertex( client % dcGraph.vertexCount() );
+				assertEquals( expected(start, "Zero"), ask( sockets.get(client), start + "\tZero" ) );
+			}
+		}
+		finally
+		{
+			for( Socket socket : sockets )
+				socket.close();
+		}
+		for( int wait = 0; wait < 100 && server.connectionCount() > 0; wait++ )
+			Thread.sleep(20);
+		assertEquals( 0, server.connectionCount() );
+	}
+
+	/**TEST CONNECTION LIMIT: 3 clients connect to a server that holds at most 2 connections
+	 * Expected: The first 2 are answered, the third is refused and closed, and a client connecting
+	 * 		after one of the first 2 leaves is answered. Without a limit given, platform threads get
+	 * 		PLATFORM_CONNECTION_LIMIT and virtual threads get none.
+	 */
+	@Test
+	public void connectionLimit() throws IOException, InterruptedException {
+		assertEquals( server.usesVirtualThreads() ? Integer.MAX_VALUE : GraphServer.PLATFORM_CONNECTION_LIMIT, server.connectionLimit() );
+		GraphServer limited = new GraphServer(dcGraph, 0, 1, 2);
+		limited.start();
+		List<Socket> sockets = new ArrayList<Socket>();
+		try
+		{
+			for( int client = 0; client < 3; client++ )
+				sockets.add( new Socket( InetAddress.getLoopbackAddress(), limited.getPort() ) );
+			assertEquals( "PATH\tBatman", ask(sockets.get(0), "Batman\tBatman") );
+			assertEquals( "PATH\tBatman", ask(sockets.get(1), "Batman\tBatman") );
+			BufferedReader refused = new BufferedReader( new InputStreamReader( sockets.get(2).getInputStream(), "UTF-8" ) );
+			assertEquals( "ERROR\tToo many connections", refused.readLine() );
+			assertNull( refused.readLine() );
+
+			sockets.get(0).close();
+			for( int wait = 0; wait < 100 && limited.connectionCount() > 1; wait++ )
+				Thread.sleep(20);
+			sockets.add( new Socket( InetAddress.getLoopbackAddress(), limited.getPort() ) );
+			assertEquals( "PATH\tBatman", ask(sockets.get(3), "Batman\tBatman") );
+		}
+		finally
+		{
+			for( Socket socket : sockets )
+				socket.close();
+			limited.close();
+		}
+	}
+
+	/**TEST CLOSE: close the server while a client is connected
+	 * Expected: The client's connection is closed
+	 */
+	@Test
+	public void close() throws IOException {
+		Socket socket = connect();
+		try
+		{
+			ask(socket, "Batman\tZero");
+			server.close();
+			assertNull( new BufferedReader( new InputStreamReader( socket.getInputStream(), "UTF-8" ) ).readLine() );
+		}
+		finally
+		{
+			socket.close();
+		}
+	}
+
+	/**TEST ACCEPT THREAD STOPS: close the server
+	 * Expected: The thread accepting connections ends instead of retrying the closed socket
+	 */
+	@Test
+	public void acceptThreadStops() throws IOException, InterruptedException {
+		server.close();
+		for( int wait = 0; wait < 100 && acceptThreadRunning(); wait++ )
+			Thread.sleep(20);
+		assertFalse( acceptThreadRunning() );
+	}
+
+	private static boolean acceptThreadRunning() {
+		for( Thread thread : Thread.getAllStackTraces().keySet() )
+			if( thread.getName().equals("GraphServer accept") && thread.isAlive() )
+				return true;
+		return false;
+	}
+
+	private Socket connect() throws IOException {
+		return new Socket( InetAddress.getLoopbackAddress(), server.getPort() );
+	}
+
+	/**
+	 * Sends one request on "socket" and reads its answer. Only whole answers are read, so the same socket
+	 * can be asked again.
+	 */
+	private static String ask( Socket socket, String request ) throws IOException {
+		socket.getOutputStream().write( ( request + "\n" ).getBytes("UTF-8") );
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		int next;
+		while( ( next = socket.getInputStream().read() ) >= 0 && next != '\n' )
+			line.write(next);
+		return next < 0 && line.size() == 0 ? null : line.toString("UTF-8");
+	}
+
+	/**
+	 * Returns the answer the server should give for a path from "start" to "end"
+	 */
+	private static String expected( String start, String end ) {
+		try
+		{
+			StringBuilder answer = new StringBuilder("PATH");
+			for( String vertex : dcGraph.bidirectionalSearch(start, end) )
+				answer.append('\t').append(vertex);
+			return answer.toString();
+		}
+		catch( NoPathException e )
+		{
+			return "NOPATH";
+		}
+	}
+}
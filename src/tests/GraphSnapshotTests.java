@@ -0,0 +1,82 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import mp5.CompactGraph;
+import mp5.GraphSnapshot;
+import mp5.MarvelGenerator;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * This class tests saving the "dc.tsv" graph to a snapshot and loading it back.
+ */
+public class GraphSnapshotTests {
+static CompactGraph dcGraph;
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		dcGraph = MarvelGenerator.generateGraph("dc.tsv").compile();
+	}
+
+	/**TEST ROUND TRIP: write the graph to a snapshot and load it
+	 * Expected: Same vertices, neighbours, paths and path strings as the graph that was written
+	 */
+	@Test
+	public void roundTrip() throws IOException {
+		File snapshot = File.createTempFile("dcgraph", ".snapshot");
+		try
+		{
+			GraphSnapshot.write(dcGraph, snapshot.getPath(), "dc.tsv");
+			CompactGraph loaded = GraphSnapshot.load(snapshot.getPath());
+			assertEquals( dcGraph.vertexCount(), loaded.vertexCount() );
+			for( int id = 0; id < dcGraph.vertexCount(); id++ )
+			{
+				String vertex = dcGraph.getVertex(id);
+				assertEquals( vertex, loaded.getVertex(id) );
+				assertEquals( dcGraph.getNeighbours(vertex), loaded.getNeighbours(vertex) );
+			}
+			assertEquals( dcGraph.bidirectionalSearch("Random Pedestrian", "Darkseid"),
+					loaded.bidirectionalSearch("Random Pedestrian", "Darkseid") );
+			assertEquals( dcGraph.pathToString( dcGraph.bidirectionalSearch("Random Pedestrian", "Darkseid") ),
+					loaded.pathToString( loaded.bidirectionalSearch("Random Pedestrian", "Darkseid") ) );
+		}
+		finally
+		{
+			snapshot.delete();
+		}
+	}
+
+	/**TEST OUT OF DATE SNAPSHOT: the source changes after the snapshot was written
+	 * Expected: Snapshot is current until the source's modification time changes
+	 */
+	@Test
+	public void outOfDate() throws IOException {
+		File source = File.createTempFile("dcgraph", ".tsv");
+		File snapshot = new File( source.getPath() + MarvelGenerator.SNAPSHOT_SUFFIX );
+		try
+		{
+			assertFalse( GraphSnapshot.isCurrent(snapshot.getPath(), source.getPath()) );
+			GraphSnapshot.write(dcGraph, snapshot.getPath(), source.getPath());
+			assertTrue( GraphSnapshot.isCurrent(snapshot.getPath(), source.getPath()) );
+			source.setLastModified( source.lastModified() - 10000 );
+			assertFalse( GraphSnapshot.isCurrent(snapshot.getPath(), source.getPath()) );
+		}
+		finally
+		{
+			source.delete();
+			snapshot.delete();
+		}
+	}
+
+	/**TEST NOT A SNAPSHOT: load a tsv file as a snapshot
+	 * Expected: IOException thrown
+	 */
+	@Test(expected = IOException.class)
+	public void notASnapshot() throws IOException {
+		GraphSnapshot.load("dc.tsv");
+	}
+}
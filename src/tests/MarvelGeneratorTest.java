@@ -2,6 +2,13 @@ package tests;
 
 import static org.junit.Assert.*;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -105,6 +112,92 @@ public class MarvelGeneratorTest {
 			assertEquals(true,  testGraph.equals(dcGraph));
 	}
 	
+	/**Test whether building "dc.tsv" on several threads gives the same graph as building it on one.
+	 * 3 threads splits the file into shards of different comics, 20 threads makes some shards empty.
+	 * Expected: All graphs are equal
+	 */
+	@Test
+	public void testParallelGenerator() {
+		try{
+			SimpleGraph expected = MarvelGenerator.generateGraph("dc.tsv");
+			assertEquals( expected, MarvelGenerator.generateGraph("dc.tsv", 1) );
+			assertEquals( expected, MarvelGenerator.generateGraph("dc.tsv", 3) );
+			assertEquals( expected, MarvelGenerator.generateGraph("dc.tsv", 20) );
+		}
+		catch(Exception e )
+		{
+			System.out.println("Error reading file" );
+			fail();
+		}
+	}
+	
+	/**Test whether TsvFile reads the same rows as BufferedReader.readLine(). "dc.tsv" has "\r\n" line
+	 * ends and no line end after its last row.
+	 * Expected: Same characters and comics in the same order, and rows of the same comic compare equal
+	 */
+	@Test
+	public void testMappedRows() {
+		try{
+			TsvFile rows = TsvFile.map("dc.tsv");
+			BufferedReader reader = new BufferedReader( new FileReader("dc.tsv") );
+			String line;
+			int row = 0;
+			while( (line = reader.readLine()) != null )
+			{
+				String[] fields = line.split("\\t");
+				assertEquals( fields[0].replaceAll("^\"|\"$", ""), rows.getCharacter(row) );
+				assertEquals( fields[1].replaceAll("^\"|\"$", ""), rows.getComic(row) );
+				if( row > 0 )
+					assertEquals( rows.getComic(row).equals(rows.getComic(row-1)), rows.sameComic(row, row-1) );
+				row++;
+			}
+			reader.close();
+			assertEquals( row, rows.rowCount() );
+		}
+		catch(IOException e )
+		{
+			System.out.println("Error reading file" );
+			fail();
+		}
+	}
+	
+	/**Test appending "dc.tsv" to a file in 4 pieces, cut in the middle of lines and of a comic, adding the
+	 * new rows to the same graph after each piece. The last piece adds the line end "dc.tsv" doesn't have.
+	 * Expected: Same graph as building all of "dc.tsv", and the checkpoint never goes backwards
+	 */
+	@Test
+	public void testAppendToGraph() throws IOException {
+		byte[] dc = Files.readAllBytes( Paths.get("dc.tsv") );
+		File data = File.createTempFile("dcgraph", ".tsv");
+		try
+		{
+			SimpleGraph graph = new SimpleGraph();
+			long checkpoint = 0;
+			int[] cuts = { dc.length / 4, dc.length / 2, dc.length * 3 / 4 + 1, dc.length };
+			int written = 0;
+			for( int cut : cuts )
+			{
+				FileOutputStream out = new FileOutputStream(data, true);
+				out.write( dc, written, cut - written );
+				if( cut == dc.length )
+					out.write( "\r\n".getBytes() );
+				out.close();
+				written = cut;
+				
+				long next = MarvelGenerator.appendToGraph(graph, data.getPath(), checkpoint);
+				assertTrue( next >= checkpoint );
+				checkpoint = next;
+			}
+			assertEquals( MarvelGenerator.generateGraph("dc.tsv"), graph );
+			//Nothing new to read
+			assertEquals( checkpoint, MarvelGenerator.appendToGraph(graph, data.getPath(), checkpoint) );
+		}
+		finally
+		{
+			data.delete();
+		}
+	}
+	
 	/**Helper method for testing MarvelGenerator. Creates edges between characters
 	 * in the given characterGroup for the given comic and adds these edges and characters
 	 * to "dcGraph"
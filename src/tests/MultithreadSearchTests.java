@@ -161,6 +161,20 @@ public class MultithreadSearchTests {
 		assertEquals(correct, dcGraph.breadthFirstSearch("Chloe Sullivan", "Zero", 3));
 	}
 	
+	/**TEST SHARED POOLS: the same search before and after the search pools are shut down,
+	 * once with 2 threads and once with 3. Chloe Sullivan --> Zero
+	 * Expected: Same path every time, since a search after shutdownSearchPools() makes a new pool
+	 */
+	@Test
+	public void searchAfterPoolShutdown() {
+		CompactGraph compiled = dcGraph.compile();
+		List<String> before = compiled.breadthFirstSearch("Chloe Sullivan", "Zero", 2);
+		assertEquals( before, compiled.breadthFirstSearch("Chloe Sullivan", "Zero", 3) );
+		CompactGraph.shutdownSearchPools();
+		assertEquals( before, compiled.breadthFirstSearch("Chloe Sullivan", "Zero", 2) );
+		assertEquals( before, compiled.breadthFirstSearch("Chloe Sullivan", "Zero", 3) );
+	}
+	
 	/**
 	 * TEST ALPHABETICAL ORDER OF EDGES. Random Pedestrian -> Darkseid
 	 * We will add comics to the first 2 edges that are alphabetically lower than the ones
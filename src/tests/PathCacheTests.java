@@ -0,0 +1,116 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import mp5.MarvelGenerator;
+import mp5.NoPathException;
+import mp5.PathCache;
+import mp5.SimpleGraph;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class tests the cache of paths in front of the searches of a SimpleGraph of "dc.tsv", and the
+ * eviction of a PathCache.
+ */
+public class PathCacheTests {
+SimpleGraph dcGraph;
+	@Before
+	public void setUp() throws Exception {
+		dcGraph = MarvelGenerator.generateGraph("dc.tsv");
+	}
+
+	/**TEST REPEATED QUERY: Random Pedestrian --> Darkseid searched twice, with and without quotations
+	 * Expected: 1 miss then 1 hit, same path both times
+	 */
+	@Test
+	public void repeatedQuery() {
+		List<String> first = dcGraph.breadthFirstSearch("Random Pedestrian", "Darkseid", 2);
+		List<String> second = dcGraph.bidirectionalSearch("\"Random Pedestrian\"", "\"Darkseid\"");
+		assertEquals( first, second );
+		assertEquals( 1, dcGraph.getPathCache().misses() );
+		assertEquals( 1, dcGraph.getPathCache().hits() );
+	}
+
+	/**TEST REVERSE QUERIES: a path of 3 vertices, and a longer path
+	 * Expected: Chloe Sullivan --> Batman is answered from Batman --> Chloe Sullivan. Darkseid -->
+	 * Random Pedestrian is searched, since a longer path reversed may not be the lowest.
+	 */
+	@Test
+	public void reverseQuery() {
+		dcGraph.breadthFirstSearch("Batman", "Chloe Sullivan", 1);
+		assertEquals( Arrays.asList("Chloe Sullivan", "Green Arrow", "Batman"),
+				dcGraph.breadthFirstSearch("Chloe Sullivan", "Batman", 1) );
+		assertEquals( 1, dcGraph.getPathCache().hits() );
+
+		dcGraph.breadthFirstSearch("Random Pedestrian", "Darkseid", 1);
+		assertEquals( dcGraph.compile().breadthFirstSearch("Darkseid", "Random Pedestrian", 1),
+				dcGraph.breadthFirstSearch("Darkseid", "Random Pedestrian", 1) );
+		assertEquals( 1, dcGraph.getPathCache().hits() );
+		assertEquals( 3, dcGraph.getPathCache().misses() );
+	}
+
+	/**TEST NO PATH: a vertex with no edges, searched twice
+	 * Expected: NoPathException both times, from the connected components without using the cache
+	 */
+	@Test
+	public void noPathNotCached() {
+		dcGraph.addVertex("Loner");
+		for( int query = 0; query < 2; query++ )
+		{
+			try {
+				dcGraph.breadthFirstSearch("Batman", "Loner", 1);
+				fail();
+			}
+			catch( NoPathException e ) {
+			}
+		}
+		assertEquals( 0, dcGraph.getPathCache().hits() );
+		assertEquals( 0, dcGraph.getPathCache().misses() );
+	}
+
+	/**TEST INVALIDATION: add an edge that makes a shorter path after the path was cached
+	 * Expected: the new, shorter path is found
+	 */
+	@Test
+	public void invalidatedByAddEdge() {
+		assertEquals( 4, dcGraph.breadthFirstSearch("Random Pedestrian", "Darkseid", 1).size() );
+		dcGraph.addEdge("Random Pedestrian", "Darkseid", "Crossover");
+		assertEquals( Arrays.asList("Random Pedestrian", "Darkseid"),
+				dcGraph.breadthFirstSearch("Random Pedestrian", "Darkseid", 1) );
+		assertEquals( 0, dcGraph.getPathCache().hits() );
+	}
+
+	/**TEST LRU EVICTION: a cache of 2 queries, with the first query used again before a third is added
+	 * Expected: the second query, least recently used, is evicted
+	 */
+	@Test
+	public void leastRecentlyUsedEvicted() {
+		PathCache cache = new PathCache(2);
+		cache.put(0, "a", "d", Arrays.asList("a", "b", "c", "d"));
+		cache.put(0, "e", "h", Arrays.asList("e", "f", "g", "h"));
+		assertNotNull( cache.get(0, "a", "d") );
+		cache.put(0, "i", "l", Arrays.asList("i", "j", "k", "l"));
+		assertEquals( 2, cache.size() );
+		assertNotNull( cache.get(0, "a", "d") );
+		assertNull( cache.get(0, "e", "h") );
+		assertNotNull( cache.get(0, "i", "l") );
+	}
+
+	/**TEST VERSIONS: a path stored for version 0 looked up at version 1, and a late store of version 0
+	 * Expected: neither is returned at version 1
+	 */
+	@Test
+	public void oldVersionIgnored() {
+		PathCache cache = new PathCache(2);
+		cache.put(0, "a", "c", Arrays.asList("a", "b", "c"));
+		assertNull( cache.get(1, "a", "c") );
+		cache.put(0, "a", "c", Arrays.asList("a", "b", "c"));
+		assertNull( cache.get(1, "a", "c") );
+		assertEquals( 0, cache.size() );
+	}
+}
@@ -0,0 +1,244 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import mp5.MarvelGenerator;
+import mp5.NoPathException;
+import mp5.SearchEngine;
+import mp5.SearchListener;
+import mp5.SimpleGraph;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * JUnit tests for SearchEngine, using data from "dc.tsv". The engine must find the same paths as
+ * SimpleGraph's breadth first search, even when many queries are running at once.
+ */
+public class SearchEngineTests {
+	static SimpleGraph dcGraph;
+	static SearchEngine engine;
+	
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		dcGraph = MarvelGenerator.generateGraph("dc.tsv");
+		engine = new SearchEngine(dcGraph.compile(), 3);
+	}
+	
+	@AfterClass
+	public static void tearDownAfterClass() {
+		engine.shutdown();
+	}
+
+	/**TEST COMPLICATED PATH Random Pedestrian --> Darkseid
+	 * Expected: Random Pedestrian -> Batman -> Ra's al Ghul -> Darkseid
+	 */
+	@Test
+	public void complicatedPath() {
+		List<String> correct = new ArrayList<String>();
+		correct.add("Random Pedestrian");
+		correct.add("Batman");
+		correct.add("Ra's al Ghul");
+		correct.add("Darkseid");
+		assertEquals( correct, engine.search("Random Pedestrian", "Darkseid").join());
+	}
+	
+	/**Test No path. Batman -> Daler Mehndi
+	 * Expected: The future completes with a NoPathException
+	 */
+	@Test
+	public void testNoPath() {
+		try{
+			engine.search("Batman", "Daler Mehndi").join();
+			fail();
+		}
+		catch(CompletionException e)
+		{
+			assertTrue( e.getCause() instanceof NoPathException );
+		}
+	}
+	
+	/**Test many queries at once: every pair of characters in both directions
+	 * Expected: Every path found by the engine is the same as the breadth first search's
+	 */
+	@Test
+	public void concurrentQueries() {
+		List<String> characters = new ArrayList<String>();
+		characters.add("Batman");
+		characters.add("Captain America");
+		characters.add("Chloe Sullivan");
+		characters.add("Darkseid");
+		characters.add("Deathstroke");
+		characters.add("Random Pedestrian");
+		characters.add("Zero");
+		
+		List<CompletableFuture<List<String>>> results = new ArrayList<CompletableFuture<List<String>>>();
+		for( String start : characters )
+			for( String end : characters )
+				results.add( engine.search(start, end) );
+		
+		int index = 0;
+		for( String start : characters )
+			for( String end : characters )
+				assertEquals( dcGraph.breadthFirstSearch(start, end, 1), results.get(index++).join() );
+	}
+	
+	/**Test progress of a watched search. Random Pedestrian -> Darkseid
+	 * Expected: the same path, after levels 1 and 2 are reported with the visited count growing by
+	 * the size of each level
+	 */
+	@Test
+	public void levelProgress() {
+		final List<Integer> levels = new ArrayList<Integer>();
+		final List<Integer> visited = new ArrayList<Integer>();
+		final List<Integer> frontiers = new ArrayList<Integer>();
+		List<String> path = engine.search("Random Pedestrian", "Darkseid", 10, 1, TimeUnit.MINUTES, new SearchListener() {
+			public void levelSearched( int level, int frontierSize, int visitedCount, long elapsedNanos ) {
+				levels.add(level);
+				frontiers.add(frontierSize);
+				visited.add(visitedCount);
+				assertTrue( elapsedNanos >= 0 );
+			}
+		}).join();
+		assertEquals( engine.search("Random Pedestrian", "Darkseid").join(), path );
+		assertEquals( Arrays.asList(1, 2), levels );
+		assertEquals( 1 + frontiers.get(0), (int) visited.get(0) );
+		assertEquals( visited.get(0) + frontiers.get(1), (int) visited.get(1) );
+	}
+	
+	/**Test the max depth of a watched search. Random Pedestrian -> Darkseid is 3 edges long
+	 * Expected: NoPathException with a max depth of 2, the path with a max depth of 3
+	 */
+	@Test
+	public void maxDepth() {
+		try{
+			engine.search("Random Pedestrian", "Darkseid", 2, 1, TimeUnit.MINUTES, null).join();
+			fail();
+		}
+		catch(CompletionException e)
+		{
+			assertTrue( e.getCause() instanceof NoPathException );
+		}
+		assertEquals( 4, engine.search("Random Pedestrian", "Darkseid", 3, 1, TimeUnit.MINUTES, null).join().size() );
+	}
+	
+	/**Test cancelling a watched search from its listener after the first level
+	 * Expected: the future is cancelled, and the search stops before the next level
+	 */
+	@Test
+	public void cancelFromListener() {
+		final CountDownLatch started = new CountDownLatch(1);
+		final List<CompletableFuture<List<String>>> search = new ArrayList<CompletableFuture<List<String>>>();
+		final List<Integer> levels = new ArrayList<Integer>();
+		search.add( engine.search("Random Pedestrian", "Darkseid", 10, 1, TimeUnit.MINUTES, new SearchListener() {
+			public void levelSearched( int level, int frontierSize, int visited, long elapsedNanos ) {
+				try {
+					started.await(); //Wait till the future is in "search"
+				}
+				catch( InterruptedException e ) {
+					fail();
+				}
+				levels.add(level);
+				search.get(0).cancel(false);
+			}
+		}) );
+		started.countDown();
+		try{
+			search.get(0).join();
+			fail();
+		}
+		catch(CancellationException e)
+		{
+		}
+		assertTrue( search.get(0).isCancelled() );
+		assertEquals( Arrays.asList(1), levels );
+	}
+	
+	/**Test a watched search whose deadline has already passed
+	 * Expected: The future completes with a TimeoutException
+	 */
+	@Test
+	public void timeout() {
+		try{
+			engine.search("Random Pedestrian", "Darkseid", 10, 0, TimeUnit.SECONDS, null).join();
+			fail();
+		}
+		catch(CompletionException e)
+		{
+			assertTrue( e.getCause() instanceof TimeoutException );
+		}
+	}
+	
+	/**Test a watched search that times out while waiting behind a busy worker
+	 * Expected: The future completes with a TimeoutException while the worker is still busy
+	 */
+	@Test
+	public void timeoutWhileWaiting() throws InterruptedException {
+		SearchEngine oneWorker = new SearchEngine(dcGraph.compile(), 1);
+		final CountDownLatch release = new CountDownLatch(1);
+		try{
+			CompletableFuture<List<String>> busy = oneWorker.search("Random Pedestrian", "Darkseid", 10, 1, TimeUnit.MINUTES, new SearchListener() {
+				public void levelSearched( int level, int frontierSize, int visited, long elapsedNanos ) {
+					try {
+						release.await(); //Keep the only worker busy
+					}
+					catch( InterruptedException e ) {
+						fail();
+					}
+				}
+			});
+			try{
+				oneWorker.search("Batman", "Zero", 10, 50, TimeUnit.MILLISECONDS, null).get(10, TimeUnit.SECONDS);
+				fail();
+			}
+			catch(ExecutionException e)
+			{
+				assertTrue( e.getCause() instanceof TimeoutException );
+			}
+			catch(TimeoutException e) //get() gave up first, so the deadline was missed
+			{
+				fail();
+			}
+			assertFalse( busy.isDone() );
+			release.countDown();
+			assertEquals( 4, busy.join().size() );
+		}
+		finally
+		{
+			release.countDown();
+			oneWorker.shutdown();
+		}
+	}
+	
+	/**Test a listener that throws an Error
+	 * Expected: The future completes with that Error instead of never completing
+	 */
+	@Test
+	public void listenerError() throws InterruptedException, TimeoutException {
+		final AssertionError error = new AssertionError("listener failed");
+		try{
+			engine.search("Random Pedestrian", "Darkseid", 10, 1, TimeUnit.MINUTES, new SearchListener() {
+				public void levelSearched( int level, int frontierSize, int visited, long elapsedNanos ) {
+					throw error;
+				}
+			}).get(10, TimeUnit.SECONDS);
+			fail();
+		}
+		catch(ExecutionException e)
+		{
+			assertSame( error, e.getCause() );
+		}
+	}
+}